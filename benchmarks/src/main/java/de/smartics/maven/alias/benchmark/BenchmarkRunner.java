@@ -0,0 +1,72 @@
+/*
+ * Copyright 2012-2024 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.smartics.maven.alias.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with allocation profiling enabled. Accepts the same
+ * arguments as the JMH command line, for instance a regular expression to
+ * select benchmarks or <code>-p aliasCount=10000</code> to restrict the catalog
+ * sizes.
+ */
+public final class BenchmarkRunner {
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  // --- members --------------------------------------------------------------
+
+  // ****************************** Initializer *******************************
+
+  // ****************************** Constructors ******************************
+
+  private BenchmarkRunner() {}
+
+  // ****************************** Inner Classes *****************************
+
+  // ********************************* Methods ********************************
+
+  // --- init -----------------------------------------------------------------
+
+  // --- get&set --------------------------------------------------------------
+
+  // --- business -------------------------------------------------------------
+
+  /**
+   * Runs the benchmarks.
+   *
+   * @param args the JMH command line arguments.
+   * @throws CommandLineOptionException if the arguments cannot be parsed.
+   * @throws RunnerException if running the benchmarks fails.
+   */
+  public static void main(final String[] args)
+      throws CommandLineOptionException, RunnerException {
+    final Options options =
+        new OptionsBuilder().parent(new CommandLineOptions(args))
+            .addProfiler(GCProfiler.class).build();
+    new Runner(options).run();
+  }
+
+  // --- object basics --------------------------------------------------------
+
+}
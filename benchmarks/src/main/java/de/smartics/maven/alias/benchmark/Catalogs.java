@@ -0,0 +1,238 @@
+/*
+ * Copyright 2012-2024 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.smartics.maven.alias.benchmark;
+
+import de.smartics.maven.alias.domain.AliasCollector;
+import de.smartics.maven.alias.domain.AliasGroup;
+import de.smartics.maven.alias.domain.AliasesProcessor;
+import de.smartics.maven.alias.domain.ExtensionGroup;
+
+import org.jdom2.JDOMException;
+import org.xml.sax.InputSource;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Creates synthetic alias catalogs for the benchmarks.
+ * <p>
+ * Aliases are organized in groups of {@link #GROUP_SIZE}. Every tenth alias is
+ * restricted to the <code>bash</code> and every tenth (shifted by five) to the
+ * <code>windows</code> environment. Extension <code>k</code> applies to every
+ * group whose index is congruent to <code>k</code> modulo
+ * {@link #EXTENSION_GROUP_STRIDE} and to the single alias with index
+ * <code>k</code>.
+ * </p>
+ */
+public final class Catalogs {
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  /**
+   * The number of aliases per group.
+   * <p>
+   * The value of this constant is {@value}.
+   * </p>
+   */
+  public static final int GROUP_SIZE = 50;
+
+  /**
+   * The distance between groups an extension applies to.
+   * <p>
+   * The value of this constant is {@value}.
+   * </p>
+   */
+  public static final int EXTENSION_GROUP_STRIDE = 8;
+
+  // --- members --------------------------------------------------------------
+
+  // ****************************** Initializer *******************************
+
+  // ****************************** Constructors ******************************
+
+  private Catalogs() {}
+
+  // ****************************** Inner Classes *****************************
+
+  /**
+   * Collects the groups and extension groups reported by the processor.
+   */
+  public static final class Collector implements AliasCollector {
+    // ******************************** Fields ********************************
+
+    // --- constants ----------------------------------------------------------
+
+    // --- members ------------------------------------------------------------
+
+    /**
+     * The collected alias groups.
+     */
+    private final List<AliasGroup> groups = new ArrayList<AliasGroup>();
+
+    /**
+     * The collected extension groups.
+     */
+    private List<ExtensionGroup> extensionGroups;
+
+    // ***************************** Initializer ******************************
+
+    // ***************************** Constructors *****************************
+
+    // ***************************** Inner Classes ****************************
+
+    // ******************************** Methods *******************************
+
+    // --- init ---------------------------------------------------------------
+
+    // --- get&set ------------------------------------------------------------
+
+    /**
+     * Returns the collected alias groups.
+     *
+     * @return the collected alias groups.
+     */
+    public List<AliasGroup> getGroups() {
+      return groups;
+    }
+
+    /**
+     * Returns the collected extension groups.
+     *
+     * @return the collected extension groups.
+     */
+    public List<ExtensionGroup> getExtensionGroups() {
+      return extensionGroups;
+    }
+
+    // --- business -----------------------------------------------------------
+
+    @Override
+    public void addAliases(final AliasGroup group) {
+      groups.add(group);
+    }
+
+    @Override
+    public void setExtensionGroups(
+        final List<ExtensionGroup> extensionGroups) {
+      this.extensionGroups = extensionGroups;
+    }
+
+    // --- object basics ------------------------------------------------------
+  }
+
+  // ********************************* Methods ********************************
+
+  // --- init -----------------------------------------------------------------
+
+  // --- get&set --------------------------------------------------------------
+
+  // --- business -------------------------------------------------------------
+
+  /**
+   * Creates the XML representation of a catalog.
+   *
+   * @param aliasCount the number of aliases in the catalog.
+   * @param extensionCount the number of extensions in the catalog.
+   * @return the XML document.
+   */
+  public static String createCatalog(final int aliasCount,
+      final int extensionCount) {
+    final StringBuilder xml = new StringBuilder(aliasCount * 200 + 1024);
+    xml.append("<?xml version='1.0'?>\n")
+        .append("<aliases xmlns=\"http://smartics.de/alias/1.1.0\">\n");
+
+    for (int k = 0; k < extensionCount; k++) {
+      xml.append("  <extension>\n").append("    <name>x").append(k)
+          .append("</name>\n").append("    <template>title x").append(k)
+          .append(" $T {@cmd}</template>\n")
+          .append("    <comment>Extension ").append(k)
+          .append(".</comment>\n    <apply-to>\n");
+      for (int g = k % EXTENSION_GROUP_STRIDE; g * GROUP_SIZE < aliasCount;
+          g += EXTENSION_GROUP_STRIDE) {
+        xml.append("      <group>g").append(g).append("</group>\n");
+      }
+      xml.append("      <alias>a").append(k).append("</alias>\n")
+          .append("    </apply-to>\n  </extension>\n");
+    }
+
+    for (int i = 0; i < aliasCount; i++) {
+      if (i % GROUP_SIZE == 0) {
+        if (i > 0) {
+          xml.append("  </group>\n");
+        }
+        xml.append("  <group name=\"g").append(i / GROUP_SIZE).append("\">\n");
+      }
+      appendAlias(xml, i);
+    }
+    if (aliasCount > 0) {
+      xml.append("  </group>\n");
+    }
+
+    xml.append("</aliases>\n");
+    return xml.toString();
+  }
+
+  private static void appendAlias(final StringBuilder xml, final int i) {
+    final String env =
+        i % 10 == 0 ? "bash" : (i % 10 == 5 ? "windows" : null);
+    xml.append("    <alias");
+    if (env != null) {
+      xml.append(" env=\"").append(env).append('"');
+    }
+    xml.append(">\n      <name>a").append(i).append("</name>\n")
+        .append("      <command");
+    if (i % 7 == 0) {
+      xml.append(" passArgs=\"false\"");
+    }
+    xml.append(">mvn -T 4 -Dalias=").append(i)
+        .append(" clean install {@args} &amp;&amp; echo {@bell}done")
+        .append("</command>\n")
+        .append("      <comment>Alias number ").append(i)
+        .append(" with <b>markup</b> in its comment.</comment>\n")
+        .append("    </alias>\n");
+  }
+
+  /**
+   * Creates an input source reading the given catalog.
+   *
+   * @param catalog the XML representation of a catalog.
+   * @return the input source.
+   */
+  public static InputSource createSource(final String catalog) {
+    return new InputSource(new StringReader(catalog));
+  }
+
+  /**
+   * Parses the catalog.
+   *
+   * @param catalog the XML representation of a catalog.
+   * @return the collector with the parsed groups and extensions.
+   * @throws IOException if the catalog cannot be read.
+   * @throws JDOMException if the catalog cannot be parsed.
+   */
+  public static Collector parse(final String catalog)
+      throws IOException, JDOMException {
+    final Collector collector = new Collector();
+    new AliasesProcessor(createSource(catalog)).process(collector);
+    return collector;
+  }
+
+  // --- object basics --------------------------------------------------------
+
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2012-2024 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.smartics.maven.alias.benchmark;
+
+import de.smartics.maven.alias.domain.Alias;
+import de.smartics.maven.alias.domain.AliasGroup;
+import de.smartics.maven.alias.domain.ExtensionGroup;
+
+import org.jdom2.JDOMException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures expanding the aliases of a parsed catalog with
+ * {@link ExtensionGroup extension groups}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExtensionBenchmark {
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  // --- members --------------------------------------------------------------
+
+  /**
+   * The number of aliases in the catalog.
+   */
+  @Param({"100", "10000", "100000"})
+  public int aliasCount;
+
+  /**
+   * The number of extensions in the catalog.
+   */
+  @Param({"1", "4", "16"})
+  public int extensionCount;
+
+  /**
+   * The parsed catalog.
+   */
+  private Catalogs.Collector parsed;
+
+  // ****************************** Initializer *******************************
+
+  // ****************************** Constructors ******************************
+
+  // ****************************** Inner Classes *****************************
+
+  // ********************************* Methods ********************************
+
+  // --- init -----------------------------------------------------------------
+
+  /**
+   * Parses the catalog.
+   *
+   * @throws IOException if the catalog cannot be read.
+   * @throws JDOMException if the catalog cannot be parsed.
+   */
+  @Setup
+  public void setUp() throws IOException, JDOMException {
+    parsed =
+        Catalogs.parse(Catalogs.createCatalog(aliasCount, extensionCount));
+  }
+
+  // --- get&set --------------------------------------------------------------
+
+  // --- business -------------------------------------------------------------
+
+  /**
+   * Offers every alias of the catalog to fresh extension groups.
+   *
+   * @return the expanded extension groups.
+   */
+  @Benchmark
+  public List<ExtensionGroup> expand() {
+    final List<ExtensionGroup> parsedExtensions = parsed.getExtensionGroups();
+    final List<ExtensionGroup> extensionGroups =
+        new ArrayList<ExtensionGroup>(parsedExtensions.size());
+    for (final ExtensionGroup parsedExtension : parsedExtensions) {
+      extensionGroups.add(new ExtensionGroup(parsedExtension.getExtension()));
+    }
+
+    for (final AliasGroup group : parsed.getGroups()) {
+      final String groupName = group.getName();
+      for (final Alias alias : group.getAliases()) {
+        for (final ExtensionGroup extensionGroup : extensionGroups) {
+          extensionGroup.addAlias(groupName, alias);
+        }
+      }
+    }
+    return extensionGroups;
+  }
+
+  // --- object basics --------------------------------------------------------
+
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2012-2024 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.smartics.maven.alias.benchmark;
+
+import de.smartics.maven.alias.domain.AliasesProcessor;
+
+import org.jdom2.JDOMException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures creating an {@link AliasesProcessor} and processing a catalog.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParseBenchmark {
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  // --- members --------------------------------------------------------------
+
+  /**
+   * The number of aliases in the catalog.
+   */
+  @Param({"100", "10000", "100000"})
+  public int aliasCount;
+
+  /**
+   * The number of extensions in the catalog.
+   */
+  @Param({"0", "4", "16"})
+  public int extensionCount;
+
+  /**
+   * The XML representation of the catalog.
+   */
+  private String catalog;
+
+  // ****************************** Initializer *******************************
+
+  // ****************************** Constructors ******************************
+
+  // ****************************** Inner Classes *****************************
+
+  // ********************************* Methods ********************************
+
+  // --- init -----------------------------------------------------------------
+
+  /**
+   * Creates the catalog.
+   */
+  @Setup
+  public void setUp() {
+    catalog = Catalogs.createCatalog(aliasCount, extensionCount);
+  }
+
+  // --- get&set --------------------------------------------------------------
+
+  // --- business -------------------------------------------------------------
+
+  /**
+   * Creates the processor, which opens the document and checks the namespace.
+   *
+   * @return the processor.
+   * @throws IOException if the catalog cannot be read.
+   * @throws JDOMException if the catalog cannot be parsed.
+   */
+  @Benchmark
+  public AliasesProcessor createProcessor()
+      throws IOException, JDOMException {
+    return new AliasesProcessor(Catalogs.createSource(catalog));
+  }
+
+  /**
+   * Creates the processor and processes the whole catalog.
+   *
+   * @return the collector with the processed groups.
+   * @throws IOException if the catalog cannot be read.
+   * @throws JDOMException if the catalog cannot be parsed.
+   */
+  @Benchmark
+  public Catalogs.Collector process() throws IOException, JDOMException {
+    return Catalogs.parse(catalog);
+  }
+
+  // --- object basics --------------------------------------------------------
+
+}
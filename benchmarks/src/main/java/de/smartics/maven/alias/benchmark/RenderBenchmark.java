@@ -0,0 +1,139 @@
+/*
+ * Copyright 2012-2024 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.smartics.maven.alias.benchmark;
+
+import de.smartics.maven.alias.domain.AliasGroup;
+import de.smartics.maven.alias.script.AbstractScriptBuilder;
+import de.smartics.maven.alias.script.BashScriptBuilder;
+import de.smartics.maven.alias.script.WindowsScriptBuilder;
+
+import org.jdom2.JDOMException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures rendering the scripts of a parsed catalog with
+ * {@link BashScriptBuilder} and {@link WindowsScriptBuilder}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RenderBenchmark {
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  // --- members --------------------------------------------------------------
+
+  /**
+   * The number of aliases in the catalog.
+   */
+  @Param({"100", "10000", "100000"})
+  public int aliasCount;
+
+  /**
+   * The number of extensions in the catalog.
+   */
+  @Param({"0", "4", "16"})
+  public int extensionCount;
+
+  /**
+   * The builder for Bash scripts with all groups of the catalog added.
+   */
+  private BashScriptBuilder bash;
+
+  /**
+   * The builder for Windows scripts with all groups of the catalog added.
+   */
+  private WindowsScriptBuilder windows;
+
+  // ****************************** Initializer *******************************
+
+  // ****************************** Constructors ******************************
+
+  // ****************************** Inner Classes *****************************
+
+  // ********************************* Methods ********************************
+
+  // --- init -----------------------------------------------------------------
+
+  /**
+   * Parses the catalog and adds it to the builders.
+   *
+   * @throws IOException if the catalog cannot be read.
+   * @throws JDOMException if the catalog cannot be parsed.
+   */
+  @Setup
+  public void setUp() throws IOException, JDOMException {
+    final Catalogs.Collector parsed =
+        Catalogs.parse(Catalogs.createCatalog(aliasCount, extensionCount));
+    bash = init(new BashScriptBuilder("h"), parsed);
+    windows = init(new WindowsScriptBuilder("h"), parsed);
+  }
+
+  private static <T extends AbstractScriptBuilder> T init(final T builder,
+      final Catalogs.Collector parsed) {
+    builder.setCommentIntro("Synthetic catalog.");
+    builder.setDocUrl("http://www.example.com/aliases");
+    for (final AliasGroup group : parsed.getGroups()) {
+      builder.addAliases(group);
+    }
+    builder.setExtensionGroups(parsed.getExtensionGroups());
+    return builder;
+  }
+
+  // --- get&set --------------------------------------------------------------
+
+  // --- business -------------------------------------------------------------
+
+  /**
+   * Renders the Bash script.
+   *
+   * @return the script.
+   */
+  @Benchmark
+  public String createBashScript() {
+    return bash.createScript();
+  }
+
+  /**
+   * Renders the Windows script.
+   *
+   * @return the script.
+   */
+  @Benchmark
+  public String createWindowsScript() {
+    return windows.createScript();
+  }
+
+  // --- object basics --------------------------------------------------------
+
+}
@@ -0,0 +1,501 @@
+/*
+ * Copyright 2012-2024 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.smartics.maven.alias.benchmark;
+
+import de.smartics.maven.alias.domain.AliasGroup;
+import de.smartics.maven.alias.domain.ScriptFileWriter;
+import de.smartics.maven.alias.script.BashScriptBuilder;
+
+import org.jdom2.JDOMException;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Measures the time it takes a new shell to source the generated Bash script.
+ * For each catalog size and output mode of {@link BashScriptBuilder} the
+ * script is written to a temporary folder and sourced by
+ * <code>bash --noprofile --norc</code> repeatedly. The harness reports
+ * percentiles of the wall clock time, the size of the script and the peak
+ * resident memory of the shell.
+ * <p>
+ * Results are saved to and compared with a properties file. The harness exits
+ * with a non-zero status if the median of a measurement exceeds the median of
+ * the baseline by more than the tolerance.
+ * </p>
+ * <pre>
+ * --sizes 100,1000,10000   the numbers of aliases in the catalogs
+ * --runs 50                the number of measured runs per script
+ * --warmup 5               the number of runs before measuring
+ * --bash bash              the Bash executable
+ * --save FILE              writes the medians to FILE
+ * --baseline FILE          compares the medians with FILE
+ * --tolerance 20           the allowed regression in percent
+ * </pre>
+ */
+public final class StartupBenchmark {
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  /**
+   * The encoding of the generated scripts.
+   */
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+
+  /**
+   * The name of the measurement of a shell that sources nothing.
+   * <p>
+   * The value of this constant is {@value}.
+   * </p>
+   */
+  private static final String EMPTY = "empty";
+
+  /**
+   * Prints the peak resident memory of the shell without starting a process.
+   */
+  private static final String PRINT_MEMORY =
+      "; while read -r k v _; do if [ \"$k\" = VmHWM: ]; then echo \"$v\"; "
+          + "fi; done < /proc/$$/status";
+
+  // --- members --------------------------------------------------------------
+
+  /**
+   * The numbers of aliases in the catalogs.
+   */
+  private int[] sizes = {100, 1000, 10000};
+
+  /**
+   * The number of measured runs per script.
+   */
+  private int runs = 50;
+
+  /**
+   * The number of runs per script before measuring.
+   */
+  private int warmup = 5;
+
+  /**
+   * The Bash executable.
+   */
+  private String bash = "bash";
+
+  /**
+   * The file to save the medians to. May be <code>null</code>.
+   */
+  private File save;
+
+  /**
+   * The file with the medians to compare with. May be <code>null</code>.
+   */
+  private File baseline;
+
+  /**
+   * The allowed regression of the median in percent.
+   */
+  private double tolerance = 20;
+
+  // ****************************** Initializer *******************************
+
+  // ****************************** Constructors ******************************
+
+  private StartupBenchmark() {}
+
+  // ****************************** Inner Classes *****************************
+
+  /**
+   * The output modes of {@link BashScriptBuilder}.
+   */
+  private enum Mode {
+    /**
+     * Aliases and help alias are defined in the script.
+     */
+    EAGER("eager"),
+
+    /**
+     * The groups are loaded on first use.
+     */
+    LAZY("lazy"),
+
+    /**
+     * The help is printed by a function from a precomputed variable.
+     */
+    HELP_FUNCTION("helpFunction"),
+
+    /**
+     * The help function looks up single aliases.
+     */
+    HELP_LOOKUP("helpLookup"),
+
+    /**
+     * Comments and help text are dropped from the script.
+     */
+    MINIFY("minify");
+
+    /**
+     * The name of the mode in reports and baselines.
+     */
+    private final String label;
+
+    private Mode(final String label) {
+      this.label = label;
+    }
+
+    private BashScriptBuilder createBuilder(final File folder) {
+      final BashScriptBuilder builder = new BashScriptBuilder("h");
+      switch (this) {
+        case LAZY:
+          builder.setLazy(createFileWriter(folder));
+          break;
+        case HELP_FUNCTION:
+          builder.setHelpFunction(true);
+          break;
+        case HELP_LOOKUP:
+          builder.setHelpLookup(true);
+          break;
+        case MINIFY:
+          builder.setMinify(createFileWriter(folder));
+          break;
+        default:
+          break;
+      }
+      return builder;
+    }
+  }
+
+  /**
+   * The result of measuring a single script.
+   */
+  private static final class Result {
+    /**
+     * The key of the result in reports and baselines.
+     */
+    private final String key;
+
+    /**
+     * The size of the script in bytes.
+     */
+    private final long scriptSize;
+
+    /**
+     * The measured times in nanoseconds sorted ascending.
+     */
+    private final long[] nanos;
+
+    /**
+     * The peak resident memory of the shell in kilobytes or <code>-1</code> if
+     * unknown.
+     */
+    private final long memory;
+
+    private Result(final String key, final long scriptSize,
+        final long[] nanos, final long memory) {
+      this.key = key;
+      this.scriptSize = scriptSize;
+      this.nanos = nanos.clone();
+      Arrays.sort(this.nanos);
+      this.memory = memory;
+    }
+
+    private double percentile(final int percent) {
+      final int rank = (int) Math.ceil(percent / 100.0 * nanos.length);
+      return nanos[Math.max(rank - 1, 0)] / 1000000.0;
+    }
+  }
+
+  // ********************************* Methods ********************************
+
+  // --- init -----------------------------------------------------------------
+
+  private void parseArguments(final String[] args)
+      throws IllegalArgumentException {
+    for (int i = 0; i < args.length; i++) {
+      final String option = args[i];
+      if (i + 1 == args.length) {
+        throw new IllegalArgumentException(
+            "Missing value for option '" + option + "'.");
+      }
+      final String value = args[++i];
+      if ("--sizes".equals(option)) {
+        final String[] tokens = value.split(",");
+        sizes = new int[tokens.length];
+        for (int j = 0; j < tokens.length; j++) {
+          sizes[j] = Integer.parseInt(tokens[j].trim());
+        }
+      } else if ("--runs".equals(option)) {
+        runs = Integer.parseInt(value);
+      } else if ("--warmup".equals(option)) {
+        warmup = Integer.parseInt(value);
+      } else if ("--bash".equals(option)) {
+        bash = value;
+      } else if ("--save".equals(option)) {
+        save = new File(value);
+      } else if ("--baseline".equals(option)) {
+        baseline = new File(value);
+      } else if ("--tolerance".equals(option)) {
+        tolerance = Double.parseDouble(value);
+      } else {
+        throw new IllegalArgumentException(
+            "Unknown option '" + option + "'.");
+      }
+    }
+  }
+
+  private static ScriptFileWriter createFileWriter(final File folder) {
+    return new ScriptFileWriter() {
+      @Override
+      public void write(final String path, final CharSequence content)
+          throws IOException {
+        writeFile(new File(folder, path), content);
+      }
+
+      @Override
+      public void write(final String path, final Content content)
+          throws IOException {
+        final StringBuilder text = new StringBuilder();
+        content.writeTo(text);
+        write(path, text);
+      }
+    };
+  }
+
+  // --- get&set --------------------------------------------------------------
+
+  // --- business -------------------------------------------------------------
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args the options of the harness.
+   * @throws IOException if scripts cannot be written or Bash cannot be run.
+   * @throws JDOMException if a catalog cannot be parsed.
+   * @throws InterruptedException if waiting for Bash is interrupted.
+   */
+  public static void main(final String[] args)
+      throws IOException, JDOMException, InterruptedException {
+    final StartupBenchmark benchmark = new StartupBenchmark();
+    benchmark.parseArguments(args);
+    final List<Result> results = benchmark.run();
+    benchmark.report(results);
+    if (benchmark.save != null) {
+      benchmark.saveResults(results);
+    }
+    if (benchmark.baseline != null && !benchmark.compare(results)) {
+      System.exit(1);
+    }
+  }
+
+  private List<Result> run()
+      throws IOException, JDOMException, InterruptedException {
+    final File folder = createTempFolder();
+    try {
+      final List<Result> results = new ArrayList<Result>();
+      results.add(measure(EMPTY, null));
+
+      for (final int size : sizes) {
+        final Catalogs.Collector parsed =
+            Catalogs.parse(Catalogs.createCatalog(size, 0));
+        for (final Mode mode : Mode.values()) {
+          final File modeFolder = new File(folder, mode.label + '-' + size);
+          final File script = writeScript(mode, parsed, modeFolder);
+          results.add(measure(mode.label + '.' + size, script));
+        }
+      }
+      return results;
+    } finally {
+      delete(folder);
+    }
+  }
+
+  private static void delete(final File file) {
+    final File[] children = file.listFiles();
+    if (children != null) {
+      for (final File child : children) {
+        delete(child);
+      }
+    }
+    file.delete(); // NOPMD
+  }
+
+  private static File createTempFolder() throws IOException {
+    final File folder = File.createTempFile("alias-startup", "");
+    if (!folder.delete() || !folder.mkdirs()) {
+      throw new IOException("Cannot create folder '" + folder + "'.");
+    }
+    return folder;
+  }
+
+  private static File writeScript(final Mode mode,
+      final Catalogs.Collector parsed, final File folder) throws IOException {
+    final BashScriptBuilder builder = mode.createBuilder(folder);
+    for (final AliasGroup group : parsed.getGroups()) {
+      builder.addAliases(group);
+    }
+    builder.setExtensionGroups(parsed.getExtensionGroups());
+
+    final File script = new File(folder, BashScriptBuilder.ID);
+    final Writer writer = openWriter(script);
+    try {
+      builder.writeScript(writer);
+    } finally {
+      writer.close();
+    }
+    return script;
+  }
+
+  private Result measure(final String key, final File script)
+      throws IOException, InterruptedException {
+    final String source =
+        script != null ? "source \"$1\" || exit 1" : ":";
+    for (int i = 0; i < warmup; i++) {
+      runBash(source, script);
+    }
+
+    final long[] nanos = new long[runs];
+    for (int i = 0; i < runs; i++) {
+      final long start = System.nanoTime();
+      runBash(source, script);
+      nanos[i] = System.nanoTime() - start;
+    }
+
+    final String memory = runBash(source + PRINT_MEMORY, script).trim();
+    return new Result(key, script != null ? script.length() : 0, nanos,
+        memory.length() > 0 ? Long.parseLong(memory) : -1);
+  }
+
+  private String runBash(final String command, final File script)
+      throws IOException, InterruptedException {
+    final List<String> arguments = new ArrayList<String>(Arrays.asList(bash,
+        "--noprofile", "--norc", "-c", command, "bash"));
+    if (script != null) {
+      arguments.add(script.getAbsolutePath());
+    }
+    final Process process =
+        new ProcessBuilder(arguments).redirectErrorStream(true).start();
+    final String output = readFully(process.getInputStream());
+    final int exitCode = process.waitFor();
+    if (exitCode != 0) {
+      throw new IOException("Bash exited with " + exitCode + " sourcing '"
+          + script + "': " + output);
+    }
+    return output;
+  }
+
+  private void report(final List<Result> results) {
+    System.out.println(String.format(Locale.ENGLISH,
+        "%-22s %12s %10s %10s %10s %10s %10s", "script", "bytes", "p50 ms",
+        "p90 ms", "p99 ms", "max ms", "peak KB"));
+    for (final Result result : results) {
+      System.out.println(String.format(Locale.ENGLISH,
+          "%-22s %12d %10.2f %10.2f %10.2f %10.2f %10d", result.key,
+          result.scriptSize, result.percentile(50), result.percentile(90),
+          result.percentile(99), result.percentile(100), result.memory));
+    }
+  }
+
+  private void saveResults(final List<Result> results) throws IOException {
+    final Properties properties = new Properties();
+    for (final Result result : results) {
+      properties.setProperty(result.key,
+          String.format(Locale.ENGLISH, "%.3f", result.percentile(50)));
+    }
+    final OutputStream out = new FileOutputStream(save);
+    try {
+      properties.store(out, "Median startup times in milliseconds");
+    } finally {
+      out.close();
+    }
+  }
+
+  private boolean compare(final List<Result> results) throws IOException {
+    final Properties properties = new Properties();
+    final InputStream in = new FileInputStream(baseline);
+    try {
+      properties.load(in);
+    } finally {
+      in.close();
+    }
+
+    boolean passed = true;
+    for (final Result result : results) {
+      final String value = properties.getProperty(result.key);
+      if (value == null) {
+        continue;
+      }
+      final double expected = Double.parseDouble(value);
+      final double actual = result.percentile(50);
+      final double limit = expected * (1 + tolerance / 100);
+      if (actual > limit) {
+        System.out.println(String.format(Locale.ENGLISH,
+            "REGRESSION %s: %.2f ms exceeds %.2f ms (baseline %.2f ms + %.0f%%)",
+            result.key, actual, limit, expected, tolerance));
+        passed = false;
+      }
+    }
+    return passed;
+  }
+
+  private static Writer openWriter(final File file) throws IOException {
+    final File folder = file.getParentFile();
+    if (!folder.isDirectory() && !folder.mkdirs()) {
+      throw new IOException("Cannot create folder '" + folder + "'.");
+    }
+    return new OutputStreamWriter(new FileOutputStream(file), UTF8);
+  }
+
+  private static void writeFile(final File file, final CharSequence content)
+      throws IOException {
+    final Writer writer = openWriter(file);
+    try {
+      writer.append(content);
+    } finally {
+      writer.close();
+    }
+  }
+
+  private static String readFully(final InputStream in) throws IOException {
+    final BufferedReader reader =
+        new BufferedReader(new InputStreamReader(in, UTF8));
+    try {
+      final StringBuilder buffer = new StringBuilder();
+      final char[] chars = new char[4096];
+      int count;
+      while ((count = reader.read(chars)) != -1) {
+        buffer.append(chars, 0, count);
+      }
+      return buffer.toString();
+    } finally {
+      reader.close();
+    }
+  }
+
+  // --- object basics --------------------------------------------------------
+
+}
@@ -0,0 +1,379 @@
+/*
+ * Copyright 2012-2024 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.smartics.maven.alias;
+
+import de.smartics.maven.alias.domain.AliasModel;
+import de.smartics.maven.alias.domain.AliasModelSnapshot;
+
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Caches the models read from alias XML files for the duration of a build
+ * session. The plugin is loaded once per build, so all modules and goals that
+ * read the same alias XML file share one model.
+ * <p>
+ * Models are stored per session and released with the session. An entry is
+ * only found if the canonical path, size, last modification time and content
+ * hash of the file match.
+ * </p>
+ * <p>
+ * Across builds models are kept as {@link AliasModelSnapshot snapshots} that
+ * are only loaded if the content hash of the file matches. Models with and
+ * without comments are stored to separate snapshot files so that goals
+ * requiring different models do not overwrite each other's snapshot.
+ * </p>
+ */
+final class AliasModelCache {
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  /**
+   * The suffix appended to the base name of the snapshot file to store models
+   * with comments to.
+   * <p>
+   * The value of this constant is {@value}.
+   * </p>
+   */
+  static final String COMMENTS_SUFFIX = "-comments";
+
+  /**
+   * The models per session. Sessions are compared by identity and held weakly.
+   */
+  private static final Map<Object, Map<Key, AliasModel>> SESSIONS =
+      new WeakHashMap<Object, Map<Key, AliasModel>>();
+
+  // --- members --------------------------------------------------------------
+
+  // ****************************** Initializer *******************************
+
+  // ****************************** Constructors ******************************
+
+  private AliasModelCache() {}
+
+  // ****************************** Inner Classes *****************************
+
+  /**
+   * Reads the model from the alias XML file if it is neither cached nor
+   * available as a snapshot.
+   *
+   * @param <E> the type of exception signaling that the model cannot be read.
+   */
+  interface ModelReader<E extends Exception> {
+    /**
+     * Reads the model from the alias XML file.
+     *
+     * @return the model.
+     * @throws E if the model cannot be read.
+     */
+    AliasModel read() throws E;
+  }
+
+  /**
+   * Identifies the contents of an alias XML file.
+   */
+  static final class Key {
+    // ******************************** Fields ********************************
+
+    // --- constants ----------------------------------------------------------
+
+    // --- members ------------------------------------------------------------
+
+    /**
+     * The canonical path of the file.
+     */
+    private final String path;
+
+    /**
+     * The size of the file in bytes.
+     */
+    private final long size;
+
+    /**
+     * The last modification time of the file.
+     */
+    private final long lastModified;
+
+    /**
+     * The hash of the contents of the file.
+     */
+    private final String hash;
+
+    // ***************************** Initializer ******************************
+
+    // ***************************** Constructors *****************************
+
+    private Key(final String path, final long size, final long lastModified,
+        final String hash) {
+      this.path = path;
+      this.size = size;
+      this.lastModified = lastModified;
+      this.hash = hash;
+    }
+
+    // ***************************** Inner Classes ****************************
+
+    // ******************************** Methods *******************************
+
+    // --- init ---------------------------------------------------------------
+
+    /**
+     * Creates the key for the current contents of the given file. The file is
+     * read once to calculate the hash of its contents. Callers that require
+     * the hash for other purposes use {@link #getHash()} instead of reading
+     * the file again.
+     *
+     * @param file the alias XML file.
+     * @return the key.
+     * @throws IOException if the file cannot be read.
+     */
+    static Key create(final File file) throws IOException {
+      final File canonicalFile = file.getCanonicalFile();
+      final long size = canonicalFile.length();
+      final long lastModified = canonicalFile.lastModified();
+      final String hash = new ScriptFingerprint.Builder()
+          .withFile(canonicalFile).build().getValue();
+      return new Key(canonicalFile.getPath(), size, lastModified, hash);
+    }
+
+    // --- get&set ------------------------------------------------------------
+
+    /**
+     * Returns the hash of the contents of the file.
+     *
+     * @return the hash of the contents of the file.
+     */
+    String getHash() {
+      return hash;
+    }
+
+    // --- business -----------------------------------------------------------
+
+    // --- object basics ------------------------------------------------------
+
+    @Override
+    public int hashCode() {
+      return hash.hashCode();
+    }
+
+    @Override
+    public boolean equals(final Object object) {
+      if (this == object) {
+        return true;
+      } else if (object == null || getClass() != object.getClass()) {
+        return false;
+      }
+
+      final Key other = (Key) object;
+      return size == other.size && lastModified == other.lastModified
+          && hash.equals(other.hash) && path.equals(other.path);
+    }
+
+    @Override
+    public String toString() {
+      return path + '@' + hash;
+    }
+  }
+
+  // ********************************* Methods ********************************
+
+  // --- init -----------------------------------------------------------------
+
+  // --- get&set --------------------------------------------------------------
+
+  // --- business -------------------------------------------------------------
+
+  /**
+   * Returns the model for the given key. The model is taken from the session
+   * cache, else from the snapshot file and only if neither provides a suitable
+   * model, it is read by the given reader. A model read from the snapshot or
+   * by the reader is cached for the session and a model read by the reader is
+   * written to the snapshot file.
+   *
+   * @param <E> the type of exception signaling that the model cannot be read.
+   * @param session the build session. If <code>null</code> nothing is cached.
+   * @param key the key of the alias XML file.
+   * @param comments <code>true</code> if the model is required to provide
+   *        comments.
+   * @param snapshot the snapshot file or <code>null</code> if no snapshot is
+   *        to be loaded or stored. Models with comments are stored to the
+   *        {@link #getSnapshotFile(File, boolean) derived file}.
+   * @param reader the reader to read the model from the alias XML file.
+   * @param log the logger to report to.
+   * @return the model.
+   * @throws E if the reader cannot read the model.
+   */
+  static <E extends Exception> AliasModel read(final Object session,
+      final Key key, final boolean comments, final File snapshot,
+      final ModelReader<E> reader, final Log log) throws E {
+    final AliasModel cachedModel = get(session, key, comments);
+    if (cachedModel != null) {
+      if (log.isDebugEnabled()) {
+        log.debug("Using cached alias model of '" + key + "'.");
+      }
+      return cachedModel;
+    }
+
+    final File snapshotFile =
+        snapshot != null ? getSnapshotFile(snapshot, comments) : null;
+    if (snapshotFile != null) {
+      final AliasModel snapshotModel =
+          readSnapshot(snapshotFile, key, comments, log);
+      if (snapshotModel != null) {
+        put(session, key, snapshotModel);
+        return snapshotModel;
+      }
+    }
+
+    final AliasModel model = reader.read();
+    put(session, key, model);
+    if (snapshotFile != null) {
+      writeSnapshot(snapshotFile, key, model, log);
+    }
+    return model;
+  }
+
+  /**
+   * Returns the snapshot file for models with or without comments. Models
+   * without comments are stored to the given file, models with comments to a
+   * file in the same folder whose base name has the {@link #COMMENTS_SUFFIX}
+   * appended.
+   *
+   * @param snapshot the configured snapshot file.
+   * @param comments <code>true</code> if the model provides comments.
+   * @return the snapshot file to load and store the model.
+   */
+  static File getSnapshotFile(final File snapshot, final boolean comments) {
+    if (!comments) {
+      return snapshot;
+    }
+
+    final String name = snapshot.getName();
+    final int dot = name.lastIndexOf('.');
+    final String fileName = dot > 0
+        ? name.substring(0, dot) + COMMENTS_SUFFIX + name.substring(dot)
+        : name + COMMENTS_SUFFIX;
+    return new File(snapshot.getParentFile(), fileName);
+  }
+
+  /**
+   * Returns the model cached for the given session and key.
+   *
+   * @param session the build session. If <code>null</code> nothing is cached.
+   * @param key the key of the alias XML file.
+   * @param comments <code>true</code> if the model is required to provide
+   *        comments.
+   * @return the cached model or <code>null</code> if no suitable model has
+   *         been cached.
+   */
+  static AliasModel get(final Object session, final Key key,
+      final boolean comments) {
+    if (session == null) {
+      return null;
+    }
+
+    final AliasModel model;
+    synchronized (SESSIONS) {
+      final Map<Key, AliasModel> models = SESSIONS.get(session);
+      model = models != null ? models.get(key) : null;
+    }
+    return isSuitable(model, comments) ? model : null;
+  }
+
+  private static boolean isSuitable(final AliasModel model,
+      final boolean comments) {
+    return model != null && (model.hasComments() || !comments);
+  }
+
+  /**
+   * Caches the model for the given session and key.
+   *
+   * @param session the build session. If <code>null</code> nothing is cached.
+   * @param key the key of the alias XML file.
+   * @param model the model read from the file.
+   */
+  static void put(final Object session, final Key key,
+      final AliasModel model) {
+    if (session == null) {
+      return;
+    }
+
+    synchronized (SESSIONS) {
+      Map<Key, AliasModel> models = SESSIONS.get(session);
+      if (models == null) {
+        models = new HashMap<Key, AliasModel>();
+        SESSIONS.put(session, models);
+      }
+      models.put(key, model);
+    }
+  }
+
+  /**
+   * Loads the model from the snapshot file if it has been written for the
+   * same contents of the alias XML file.
+   *
+   * @param snapshot the snapshot file.
+   * @param key the key of the alias XML file.
+   * @param comments <code>true</code> if the model is required to provide
+   *        comments.
+   * @param log the logger to report an unreadable snapshot to.
+   * @return the model or <code>null</code> if there is no suitable snapshot.
+   */
+  static AliasModel readSnapshot(final File snapshot, final Key key,
+      final boolean comments, final Log log) {
+    try {
+      final AliasModel model = AliasModelSnapshot.read(snapshot, key.getHash());
+      if (!isSuitable(model, comments)) {
+        return null;
+      }
+      if (log.isDebugEnabled()) {
+        log.debug("Loaded alias model from snapshot '"
+            + snapshot.getAbsolutePath() + "'.");
+      }
+      return model;
+    } catch (final IOException e) {
+      log.warn("Ignoring alias model snapshot: " + e.getMessage());
+      return null;
+    }
+  }
+
+  /**
+   * Writes the model to the snapshot file. Failures are logged since the
+   * snapshot is only an optimization.
+   *
+   * @param snapshot the snapshot file.
+   * @param key the key of the alias XML file.
+   * @param model the model read from the alias XML file.
+   * @param log the logger to report failures to.
+   */
+  static void writeSnapshot(final File snapshot, final Key key,
+      final AliasModel model, final Log log) {
+    try {
+      AliasModelSnapshot.write(snapshot, key.getHash(), model);
+    } catch (final IOException e) {
+      log.warn("Cannot write alias model snapshot: " + e.getMessage());
+    }
+  }
+
+  // --- object basics --------------------------------------------------------
+
+}
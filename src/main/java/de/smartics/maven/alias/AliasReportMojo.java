@@ -15,11 +15,13 @@
  */
 package de.smartics.maven.alias;
 
+import de.smartics.maven.alias.domain.AliasModel;
 import de.smartics.maven.alias.domain.AliasesProcessor;
 import de.smartics.maven.alias.report.AliasReportRenderer;
 import de.smartics.maven.alias.report.ReportAliasCollector;
 
 import org.apache.maven.doxia.sink.Sink;
+import org.apache.maven.execution.MavenSession;
 import org.apache.maven.reporting.MavenReportException;
 import org.xml.sax.InputSource;
 
@@ -27,6 +29,7 @@ import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.Locale;
 import java.util.ResourceBundle;
@@ -58,6 +61,53 @@ public final class AliasReportMojo extends AbstractReportMojo {
    */
   private String aliasLocation;
 
+  /**
+   * A flag to read the alias definitions into a JDOM document before they are
+   * processed. Per default the alias definitions are read as a stream without
+   * creating a document object model. If set on the command line use
+   * <code>-Dalias.useDomParser</code>.
+   *
+   * @parameter expression="${alias.useDomParser}" default-value="false"
+   * @since 0.3.5
+   */
+  private boolean useDomParser;
+
+  /**
+   * The file to store a binary snapshot of the alias model to. Subsequent
+   * builds load the snapshot instead of reading the alias XML file as long as
+   * the contents of the alias XML file has not changed. A model read with
+   * comments is stored next to this file with <code>-comments</code> appended
+   * to the base name (e.g. <code>model-comments.bin</code>), so the alias and
+   * the report goal do not overwrite each other's snapshot. If set on the
+   * command line use <code>-Dalias.modelSnapshot</code>.
+   *
+   * @parameter expression="${alias.modelSnapshot}"
+   *            default-value="${project.build.directory}/alias/model.bin"
+   * @since 0.3.5
+   */
+  private File modelSnapshot;
+
+  /**
+   * A flag to load and store the {@link #modelSnapshot snapshot} of the alias
+   * model. If set on the command line use
+   * <code>-Dalias.useModelSnapshot</code>.
+   *
+   * @parameter expression="${alias.useModelSnapshot}" default-value="true"
+   * @since 0.3.5
+   */
+  private boolean useModelSnapshot;
+
+  /**
+   * The current build session. Models read from the alias XML file are cached
+   * for the session so that modules, goals and locales sharing the file do not
+   * read it again.
+   *
+   * @parameter expression="${session}"
+   * @readonly
+   * @since 0.3.5
+   */
+  private MavenSession session;
+
   // ****************************** Initializer *******************************
 
   // ****************************** Constructors ******************************
@@ -110,16 +160,39 @@ public final class AliasReportMojo extends AbstractReportMojo {
     final Sink sink = getSink();
     final ResourceBundle messages = getBundle(locale);
 
-    final InputSource source = createSource();
-    final AliasesProcessor processor = createProcessor(source);
     final ReportAliasCollector collector = new ReportAliasCollector();
-    processor.process(collector);
+    readModel().apply(collector);
 
     final AliasReportRenderer renderer =
         new AliasReportRenderer(messages, sink, collector);
     renderer.renderReport();
   }
 
+  private AliasModel readModel() throws MavenReportException {
+    final AliasModelCache.Key key;
+    try {
+      key = AliasModelCache.Key.create(new File(aliasLocation));
+    } catch (final IOException e) {
+      throw new MavenReportException(
+          "Cannot read alias XML file '" + aliasLocation + "'.", e);
+    }
+
+    return AliasModelCache.read(session, key, true,
+        useModelSnapshot ? modelSnapshot : null,
+        new AliasModelCache.ModelReader<MavenReportException>() {
+          public AliasModel read() throws MavenReportException {
+            final InputSource source = createSource();
+            final AliasesProcessor processor = createProcessor(source);
+            try {
+              return processor.readModel();
+            } catch (final IllegalArgumentException e) {
+              throw new MavenReportException("Cannot read alias XML from '"
+                  + source.getSystemId() + "'.", e);
+            }
+          }
+        }, getLog());
+  }
+
   private InputSource createSource() throws MavenReportException {
     final File file = new File(aliasLocation);
     try {
@@ -137,7 +210,7 @@ public final class AliasReportMojo extends AbstractReportMojo {
   private AliasesProcessor createProcessor(final InputSource source)
       throws MavenReportException {
     try {
-      return new AliasesProcessor(source);
+      return new AliasesProcessor(source, useDomParser);
     } catch (final Exception e) {
       throw new MavenReportException(
           "Cannot read alias XML from '" + source.getSystemId() + "'.", e);
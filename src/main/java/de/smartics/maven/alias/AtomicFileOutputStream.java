@@ -0,0 +1,370 @@
+/*
+ * Copyright 2012-2024 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.smartics.maven.alias;
+
+import org.apache.commons.io.IOUtils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Writes a file through a temporary file in the same folder that replaces the
+ * target on {@link #close()}. Readers never see a partially written file. If
+ * writing fails, {@link #abort()} discards the temporary file and leaves the
+ * target unchanged. Each stream uses a temporary file with a unique name, so
+ * concurrent writers do not interfere.
+ * <p>
+ * The replacement is created with the default permissions of the platform.
+ * Only the permissions the Java runtime is able to query are carried over
+ * from a replaced target: whether it is executable and whether it is
+ * writable. Other permissions, owner and group are not preserved.
+ * </p>
+ * <p>
+ * If the target already has the same contents, the temporary file is
+ * discarded and the target is not touched, so its modification time stays the
+ * same. Contents are first compared by size, then by the digest recorded when
+ * the target has been written previously. Only if there is no such digest or
+ * the target has been changed since, the target is read and compared. After
+ * closing, {@link #getDigest()} provides the digest to record for the next
+ * write.
+ * </p>
+ */
+final class AtomicFileOutputStream extends OutputStream {
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  /**
+   * The algorithm to calculate the digest of the contents.
+   * <p>
+   * The value of this constant is {@value}.
+   * </p>
+   */
+  private static final String ALGORITHM = "SHA-1";
+
+  /**
+   * The size of the buffers to write and compare contents.
+   * <p>
+   * The value of this constant is {@value}.
+   * </p>
+   */
+  private static final int BUFFER_SIZE = 8192;
+
+  // --- members --------------------------------------------------------------
+
+  /**
+   * The file to replace.
+   */
+  private final File target;
+
+  /**
+   * The temporary file the contents is written to.
+   */
+  private final File tmpFile;
+
+  /**
+   * The channel to the temporary file.
+   */
+  private final FileChannel channel;
+
+  /**
+   * The buffer collecting contents before it is written to the channel.
+   */
+  private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+  /**
+   * The digest of the contents written so far.
+   */
+  private final MessageDigest digest;
+
+  /**
+   * The number of bytes written so far.
+   */
+  private long size;
+
+  /**
+   * The digest recorded when the target has been written previously. May be
+   * <code>null</code>.
+   */
+  private final FileDigest recorded;
+
+  /**
+   * The digest of the target after the contents have been committed.
+   */
+  private FileDigest committedDigest;
+
+  /**
+   * The flag signals that writing to the temporary file has failed.
+   */
+  private boolean failed;
+
+  /**
+   * The flag signals that the stream has been closed.
+   */
+  private boolean closed;
+
+  /**
+   * The flag signals that the contents have been committed to the target.
+   */
+  private boolean committed;
+
+  // ****************************** Initializer *******************************
+
+  // ****************************** Constructors ******************************
+
+  /**
+   * Convenience constructor without a recorded digest.
+   *
+   * @param target the file to replace.
+   * @throws IOException if the temporary file cannot be created.
+   */
+  AtomicFileOutputStream(final File target) throws IOException {
+    this(target, null);
+  }
+
+  /**
+   * Default constructor.
+   *
+   * @param target the file to replace.
+   * @param recorded the digest recorded when the target has been written
+   *        previously. May be <code>null</code>.
+   * @throws IOException if the temporary file cannot be created.
+   */
+  AtomicFileOutputStream(final File target, final FileDigest recorded)
+      throws IOException {
+    this.target = target;
+    this.recorded = recorded;
+    this.tmpFile = File.createTempFile('.' + target.getName() + '.', ".tmp",
+        target.getParentFile());
+    this.digest = createDigest();
+    try {
+      this.channel = new FileOutputStream(tmpFile).getChannel();
+    } catch (final IOException e) {
+      tmpFile.delete(); // NOPMD
+      throw e;
+    }
+  }
+
+  // ****************************** Inner Classes *****************************
+
+  // ********************************* Methods ********************************
+
+  // --- init -----------------------------------------------------------------
+
+  private static MessageDigest createDigest() throws IllegalStateException {
+    try {
+      return MessageDigest.getInstance(ALGORITHM);
+    } catch (final NoSuchAlgorithmException e) {
+      throw new IllegalStateException(
+          "Digest algorithm '" + ALGORITHM + "' is not supported.", e);
+    }
+  }
+
+  // --- get&set --------------------------------------------------------------
+
+  /**
+   * Returns the digest of the target after the contents have been committed.
+   *
+   * @return the digest of the target or <code>null</code> if the stream has
+   *         not been closed successfully.
+   */
+  FileDigest getDigest() {
+    return committedDigest;
+  }
+
+  // --- business -------------------------------------------------------------
+
+  @Override
+  public void write(final int b) throws IOException {
+    write(new byte[] {(byte) b}, 0, 1);
+  }
+
+  @Override
+  public void write(final byte[] bytes, final int offset, final int length)
+      throws IOException {
+    if (closed) {
+      throw new IOException("Stream to '" + target.getAbsolutePath()
+          + "' has already been closed.");
+    }
+
+    digest.update(bytes, offset, length);
+    size += length;
+
+    int position = offset;
+    int remaining = length;
+    while (remaining > 0) {
+      final int chunk = Math.min(remaining, buffer.remaining());
+      buffer.put(bytes, position, chunk);
+      position += chunk;
+      remaining -= chunk;
+      if (!buffer.hasRemaining()) {
+        writeBuffer();
+      }
+    }
+  }
+
+  private void writeBuffer() throws IOException {
+    buffer.flip();
+    try {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    } catch (final IOException e) {
+      failed = true;
+      throw e;
+    } finally {
+      buffer.clear();
+    }
+  }
+
+  /**
+   * Replaces the target with the written contents unless both are identical.
+   * If writing the temporary file has failed, the target is left unchanged.
+   *
+   * @throws IOException if the temporary file cannot be written or the target
+   *         cannot be replaced.
+   */
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+
+    try {
+      if (!failed) {
+        writeBuffer();
+      }
+    } finally {
+      channel.close();
+    }
+
+    if (failed) {
+      tmpFile.delete(); // NOPMD
+      return;
+    }
+
+    final byte[] value = digest.digest();
+    if (isIdentical(value)) {
+      tmpFile.delete(); // NOPMD
+    } else {
+      replaceTarget();
+    }
+
+    committedDigest = FileDigest.create(target, value);
+    committed = true;
+  }
+
+  /**
+   * Discards the written contents and leaves the target unchanged. Has no
+   * effect if the stream has already been {@link #close() closed}
+   * successfully, so it is safe to call in a <code>finally</code> block.
+   */
+  void abort() {
+    if (committed) {
+      return;
+    }
+    closed = true;
+
+    IOUtils.closeQuietly(channel);
+    tmpFile.delete(); // NOPMD
+  }
+
+  private boolean isIdentical(final byte[] value) throws IOException {
+    if (!target.isFile() || target.length() != size) {
+      return false;
+    }
+
+    if (recorded != null && recorded.isCurrent(target)) {
+      return recorded.hasValue(value);
+    }
+
+    return hasSameContents(tmpFile, target);
+  }
+
+  private static boolean hasSameContents(final File file, final File other)
+      throws IOException {
+    final FileInputStream in = new FileInputStream(file);
+    final FileInputStream otherIn = new FileInputStream(other);
+    try {
+      final FileChannel channel = in.getChannel();
+      final FileChannel otherChannel = otherIn.getChannel();
+      final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+      final ByteBuffer otherBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+      while (true) {
+        final int read = fill(channel, buffer);
+        final int otherRead = fill(otherChannel, otherBuffer);
+        if (read != otherRead || !buffer.equals(otherBuffer)) {
+          return false;
+        }
+        if (read < BUFFER_SIZE) {
+          return true;
+        }
+        buffer.clear();
+        otherBuffer.clear();
+      }
+    } finally {
+      IOUtils.closeQuietly(in);
+      IOUtils.closeQuietly(otherIn);
+    }
+  }
+
+  private static int fill(final FileChannel channel, final ByteBuffer buffer)
+      throws IOException {
+    while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+      // Channels may return fewer bytes than requested.
+    }
+    buffer.flip();
+    return buffer.limit();
+  }
+
+  private void replaceTarget() throws IOException {
+    if (target.isFile()) {
+      copyPermissions();
+    }
+
+    // Renaming replaces the target atomically on POSIX file systems. Other
+    // platforms refuse to rename to an existing file.
+    if (tmpFile.renameTo(target)) {
+      return;
+    }
+
+    if (!target.delete() || !tmpFile.renameTo(target)) {
+      tmpFile.delete(); // NOPMD
+      throw new IOException(
+          "Cannot replace file '" + target.getAbsolutePath() + "'.");
+    }
+  }
+
+  private void copyPermissions() {
+    if (target.canExecute()) {
+      tmpFile.setExecutable(true, false); // NOPMD
+    }
+    if (!target.canWrite()) {
+      tmpFile.setWritable(false, false); // NOPMD
+    }
+  }
+
+  // --- object basics --------------------------------------------------------
+
+}
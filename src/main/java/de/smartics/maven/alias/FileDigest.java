@@ -0,0 +1,165 @@
+/*
+ * Copyright 2012-2024 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.smartics.maven.alias;
+
+import java.io.File;
+
+/**
+ * The digest of the contents of a file at the time it has been written. The
+ * digest is valid as long as size and modification time of the file are
+ * unchanged.
+ */
+final class FileDigest {
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  /**
+   * The characters to render a digest as a hex string.
+   */
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  /**
+   * The separator of the fields in the {@link #toString() string
+   * representation}.
+   * <p>
+   * The value of this constant is {@value}.
+   * </p>
+   */
+  private static final char SEPARATOR = ' ';
+
+  // --- members --------------------------------------------------------------
+
+  /**
+   * The size of the file in bytes.
+   */
+  private final long size;
+
+  /**
+   * The last modification time of the file.
+   */
+  private final long lastModified;
+
+  /**
+   * The hex encoded digest of the contents of the file.
+   */
+  private final String value;
+
+  // ****************************** Initializer *******************************
+
+  // ****************************** Constructors ******************************
+
+  private FileDigest(final long size, final long lastModified,
+      final String value) {
+    this.size = size;
+    this.lastModified = lastModified;
+    this.value = value;
+  }
+
+  // ****************************** Inner Classes *****************************
+
+  // ********************************* Methods ********************************
+
+  // --- init -----------------------------------------------------------------
+
+  /**
+   * Creates the digest of the given file in its current state.
+   *
+   * @param file the file whose contents has been digested.
+   * @param value the digest of the contents.
+   * @return the digest of the file.
+   */
+  static FileDigest create(final File file, final byte[] value) {
+    return new FileDigest(file.length(), file.lastModified(), toHex(value));
+  }
+
+  /**
+   * Parses the {@link #toString() string representation} of a digest.
+   *
+   * @param text the string representation.
+   * @return the digest or <code>null</code> if the text cannot be parsed.
+   */
+  static FileDigest parse(final String text) {
+    final String[] fields = text.trim().split(String.valueOf(SEPARATOR));
+    if (fields.length != 3) {
+      return null;
+    }
+
+    try {
+      return new FileDigest(Long.parseLong(fields[0]),
+          Long.parseLong(fields[1]), fields[2]);
+    } catch (final NumberFormatException e) {
+      return null;
+    }
+  }
+
+  // --- get&set --------------------------------------------------------------
+
+  // --- business -------------------------------------------------------------
+
+  /**
+   * Checks whether the file has not been changed since the digest has been
+   * created.
+   *
+   * @param file the file to check.
+   * @return <code>true</code> if size and modification time of the file are
+   *         unchanged, <code>false</code> otherwise.
+   */
+  boolean isCurrent(final File file) {
+    return file.isFile() && size == file.length()
+        && lastModified == file.lastModified();
+  }
+
+  /**
+   * Checks whether the given digest of contents is equal to this digest.
+   *
+   * @param digest the digest of contents to compare.
+   * @return <code>true</code> if both digests are equal, <code>false</code>
+   *         otherwise.
+   */
+  boolean hasValue(final byte[] digest) {
+    return value.equals(toHex(digest));
+  }
+
+  /**
+   * Renders the given bytes as a hex string.
+   *
+   * @param bytes the bytes to render.
+   * @return the hex string with two lower case characters per byte.
+   */
+  static String toHex(final byte[] bytes) {
+    final char[] chars = new char[bytes.length * 2];
+    for (int i = 0; i < bytes.length; i++) {
+      final int b = bytes[i] & 0xff;
+      chars[i * 2] = HEX[b >>> 4];
+      chars[i * 2 + 1] = HEX[b & 0x0f];
+    }
+    return new String(chars);
+  }
+
+  // --- object basics --------------------------------------------------------
+
+  /**
+   * Returns the string representation of the digest as stored in the state
+   * file.
+   *
+   * @return size, modification time and digest separated by spaces.
+   */
+  @Override
+  public String toString() {
+    return String.valueOf(size) + SEPARATOR + lastModified + SEPARATOR + value;
+  }
+}
@@ -15,25 +15,45 @@
  */
 package de.smartics.maven.alias;
 
+import de.smartics.maven.alias.domain.AliasModel;
+import de.smartics.maven.alias.domain.AliasNameLengths;
 import de.smartics.maven.alias.domain.AliasesProcessor;
 import de.smartics.maven.alias.domain.ScriptBuilder;
+import de.smartics.maven.alias.domain.ScriptFileWriter;
+import de.smartics.maven.alias.script.AbstractScriptBuilder;
 import de.smartics.maven.alias.script.BashScriptBuilder;
 import de.smartics.maven.alias.script.WindowsScriptBuilder;
 
-import org.apache.commons.io.IOUtils;
+import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
+import org.codehaus.plexus.util.StringUtils;
 import org.xml.sax.InputSource;
 
 import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 /**
  * Creates an alias script based on the alias configuration.
@@ -151,6 +171,236 @@ public class MavenAliasMojo extends AbstractMojo {
    */
   private String[] scripts;
 
+  /**
+   * A flag to skip the generation of scripts if neither the alias definitions
+   * nor the configuration of this goal has changed since the last run. The
+   * fingerprint of the last run is stored in the {@link #scriptLocation}. Per
+   * default the scripts are generated on every run. If set on the command
+   * line use <code>-Dalias.incremental</code>.
+   *
+   * @parameter expression="${alias.incremental}" default-value="false"
+   * @since 0.3.5
+   */
+  private boolean incremental;
+
+  /**
+   * A flag to read the alias definitions into a JDOM document before they are
+   * processed. Per default the alias definitions are read as a stream without
+   * creating a document object model. If set on the command line use
+   * <code>-Dalias.useDomParser</code>.
+   *
+   * @parameter expression="${alias.useDomParser}" default-value="false"
+   * @since 0.3.5
+   */
+  private boolean useDomParser;
+
+  /**
+   * A flag to write each group of aliases to the scripts as soon as it has
+   * been read instead of collecting all aliases first. Aliases created by
+   * extensions are written right after the group they are created from. The
+   * help listing is spilled to temporary files until it is written after the
+   * last group. This keeps the memory consumption of the scripts independent
+   * of the size of the alias catalog. Since no model is kept, streaming
+   * requires {@link #useModelSnapshot} to be switched off and all extensions
+   * to precede the first group in the alias XML file. If set on the command
+   * line use <code>-Dalias.streaming</code>.
+   *
+   * @parameter expression="${alias.streaming}" default-value="false"
+   * @since 0.3.5
+   */
+  private boolean streaming;
+
+  /**
+   * The width to render alias names in the help listing if scripts are
+   * streamed. If not set to a positive value, the alias definitions are
+   * scanned for the longest alias name before the scripts are written.
+   *
+   * @parameter expression="${alias.aliasNameWidth}" default-value="0"
+   * @since 0.3.5
+   */
+  private int aliasNameWidth;
+
+  /**
+   * The character encoding of the generated scripts. If not set, the platform
+   * encoding is used.
+   *
+   * @parameter expression="${alias.encoding}"
+   * @since 0.3.5
+   */
+  private String encoding;
+
+  /**
+   * The number of threads to render and write the scripts concurrently. If set
+   * to <code>1</code> the scripts are written one after another. Virtual
+   * threads are used if supported by the Java runtime. Not used if scripts
+   * are streamed. If set on the command line use
+   * <code>-Dalias.threads</code>.
+   *
+   * @parameter expression="${alias.threads}" default-value="1"
+   * @since 0.3.5
+   */
+  private int threads;
+
+  /**
+   * A flag to define the functions of the Bash script lazily. The functions
+   * of each group are written to a separate file in the folder
+   * <code>bash.d</code> next to the script. The script defines only small
+   * stubs that load the group file on first use. This reduces the time to
+   * source the script for large alias catalogs. If set on the command line
+   * use <code>-Dalias.lazy</code>.
+   *
+   * @parameter expression="${alias.lazy}" default-value="false"
+   * @since 0.3.5
+   */
+  private boolean lazy;
+
+  /**
+   * A flag to print the help listing of the Bash script by a function instead
+   * of an alias. The help text is rendered when the script is generated and
+   * printed with a single <code>printf</code>, so the shell does not need to
+   * parse a large alias with one <code>echo</code> per line. If set on the
+   * command line use <code>-Dalias.helpFunction</code>.
+   *
+   * @parameter expression="${alias.helpFunction}" default-value="false"
+   * @since 0.3.5
+   */
+  private boolean helpFunction;
+
+  /**
+   * A flag to add a lookup of single aliases to the help function of the Bash
+   * script. Implies {@link #helpFunction}. With <code>h NAME</code> the alias
+   * with the given name is shown, or all aliases whose names contain the given
+   * text. Requires Bash 4.2 or later on the machines that source the script
+   * for <code>declare -gA</code>. macOS ships with Bash 3.2, so users there
+   * need a newer Bash, for example from Homebrew. If set on the command line
+   * use <code>-Dalias.helpLookup</code>.
+   *
+   * @parameter expression="${alias.helpLookup}" default-value="false"
+   * @since 0.3.5
+   */
+  private boolean helpLookup;
+
+  /**
+   * A flag to write the Windows macros to a doskey macro file that is loaded
+   * by the Windows script with a single call to <code>doskey</code>. Per
+   * default the script calls <code>doskey</code> once for each alias. If set
+   * on the command line use <code>-Dalias.macroFile</code>.
+   *
+   * @parameter expression="${alias.macroFile}" default-value="false"
+   * @since 0.3.5
+   */
+  private boolean macroFile;
+
+  /**
+   * A flag to define the template of each extension only once in the Bash
+   * script. Extended aliases are defined as small stubs that call the
+   * template with the alias they extend, so the script grows with the number
+   * of aliases plus extensions instead of their product. Templates that pass
+   * the command to another program, like <code>sudo</code>, are not
+   * dispatched. Doskey macros cannot call other macros, so the Windows script
+   * is not affected. If set on the command line use
+   * <code>-Dalias.extensionDispatcher</code>.
+   *
+   * @parameter expression="${alias.extensionDispatcher}"
+   *            default-value="false"
+   * @since 0.3.5
+   */
+  private boolean extensionDispatcher;
+
+  /**
+   * A flag to define Bash functions with identical commands only once. Later
+   * aliases with the same command forward to the function of the first one.
+   * The ratio of forwarded functions is logged if {@link #verbose} is set. If
+   * set on the command line use <code>-Dalias.dedupeCommands</code>.
+   *
+   * @parameter expression="${alias.dedupeCommands}" default-value="false"
+   * @since 0.3.5
+   */
+  private boolean dedupeCommands;
+
+  /**
+   * A flag to minify the scripts. Comments are dropped, separators are
+   * compact and the help text is written to a plain text file next to each
+   * script that is only read if the help is invoked. The sizes of the scripts
+   * and help files are logged if {@link #verbose} is set. If set on the
+   * command line use <code>-Dalias.minify</code>.
+   *
+   * @parameter expression="${alias.minify}" default-value="false"
+   * @since 0.3.5
+   */
+  private boolean minify;
+
+  /**
+   * A flag to guard the scripts against being run twice for the same alias
+   * catalog. The scripts store the fingerprint of the catalog in a variable
+   * and return immediately if sourced again in a shell that already defines
+   * the aliases of that catalog. A newer catalog redefines all aliases. If
+   * set on the command line use <code>-Dalias.catalogGuard</code>.
+   *
+   * @parameter expression="${alias.catalogGuard}" default-value="false"
+   * @since 0.3.5
+   */
+  private boolean catalogGuard;
+
+  /**
+   * The file to store a binary snapshot of the alias model to. Subsequent
+   * builds load the snapshot instead of reading the alias XML file as long as
+   * the contents of the alias XML file has not changed. A model read with
+   * comments is stored next to this file with <code>-comments</code> appended
+   * to the base name (e.g. <code>model-comments.bin</code>), so the alias and
+   * the report goal do not overwrite each other's snapshot. If set on the
+   * command line use <code>-Dalias.modelSnapshot</code>.
+   *
+   * @parameter expression="${alias.modelSnapshot}"
+   *            default-value="${project.build.directory}/alias/model.bin"
+   * @since 0.3.5
+   */
+  private File modelSnapshot;
+
+  /**
+   * A flag to load and store the {@link #modelSnapshot snapshot} of the alias
+   * model. Has to be switched off to enable {@link #streaming}. If set on the
+   * command line use <code>-Dalias.useModelSnapshot</code>.
+   *
+   * @parameter expression="${alias.useModelSnapshot}" default-value="true"
+   * @since 0.3.5
+   */
+  private boolean useModelSnapshot;
+
+  /**
+   * The current build session. Models read from the alias XML file are cached
+   * for the session so that modules and goals sharing the file do not read it
+   * again.
+   *
+   * @parameter expression="${session}"
+   * @readonly
+   * @since 0.3.5
+   */
+  private MavenSession session;
+
+  /**
+   * The version of this plugin. Part of the fingerprint so that an upgrade of
+   * the plugin regenerates the scripts.
+   *
+   * @parameter default-value="${plugin.version}"
+   * @readonly
+   * @since 0.3.5
+   */
+  private String pluginVersion;
+
+  /**
+   * The digests of the files recorded in the state file by the previous run,
+   * by path relative to the script folder.
+   */
+  private Map<String, FileDigest> previousFiles = Collections.emptyMap();
+
+  /**
+   * The digests of the scripts and the files written by the script builders,
+   * by path relative to the script folder. Files may be written concurrently.
+   */
+  private final Map<String, FileDigest> generatedFiles =
+      Collections.synchronizedMap(new TreeMap<String, FileDigest>());
+
   // ****************************** Initializer *******************************
 
   // ****************************** Constructors ******************************
@@ -172,34 +422,142 @@ public class MavenAliasMojo extends AbstractMojo {
    */
   public void execute() throws MojoExecutionException, MojoFailureException {
     if (!skip) {
+      checkParameters();
       final File scriptFolder = createScriptFolder();
 
-      final ScriptBuilder[] builders = createBuilders();
+      final ScriptBuilder[] builders = createBuilders(scriptFolder);
 
-      final InputSource source = createSource();
-      final AliasesProcessor processor = createProcessor(source);
-      processor.process(builders);
-      logProcessingCompleted();
+      final AliasModelCache.Key key = createCacheKey();
+      final ScriptFingerprint fingerprint = createFingerprint(key);
+      if (incremental
+          && fingerprint.isUpToDate(scriptFolder, getIds(builders))) {
+        getLog().info("Alias scripts are up-to-date.");
+        return;
+      }
+      previousFiles = ScriptFingerprint.readFiles(scriptFolder);
+      deleteFingerprint(scriptFolder);
+      setCatalogHash(builders, fingerprint.getValue());
 
-      for (final ScriptBuilder builder : builders) {
-        final String script = builder.createScript();
-        writeScript(scriptFolder, builder.getId(), script);
+      if (streaming) {
+        streamScripts(scriptFolder, builders, key);
+      } else {
+        readModel(key).apply(builders);
+
+        writeScripts(scriptFolder, builders);
       }
+      logProcessingCompleted(scriptFolder, builders);
+
+      deleteStaleFiles(scriptFolder);
+      storeFingerprint(scriptFolder, fingerprint);
     } else {
       getLog().info("Skipping alias plugin.");
     }
   }
 
-  private void writeScript(final File scriptFolder, final String id,
-      final String script) throws MojoExecutionException {
-    final File scriptFile = new File(scriptFolder, id);
+  private void checkParameters() throws MojoExecutionException {
+    if (streaming && useModelSnapshot) {
+      throw new MojoExecutionException("Streaming does not keep the alias"
+          + " model to store a snapshot of. Set 'useModelSnapshot' to 'false'"
+          + " to stream the alias scripts.");
+    }
+  }
+
+  private void setCatalogHash(final ScriptBuilder[] builders,
+      final String catalogHash) {
+    for (final ScriptBuilder builder : builders) {
+      if (builder instanceof AbstractScriptBuilder) {
+        ((AbstractScriptBuilder) builder).setCatalogHash(catalogHash);
+        ((AbstractScriptBuilder) builder).setCatalogGuard(catalogGuard);
+      }
+    }
+  }
+
+  void writeScripts(final File scriptFolder,
+      final ScriptBuilder[] builders) throws MojoExecutionException {
+    if (threads <= 1 || builders.length <= 1) {
+      for (final ScriptBuilder builder : builders) {
+        writeScript(scriptFolder, builder);
+      }
+      return;
+    }
+
+    final ExecutorService executor = Executors.newFixedThreadPool(
+        Math.min(threads, builders.length), createThreadFactory());
+    try {
+      final List<Future<Void>> futures =
+          new ArrayList<Future<Void>>(builders.length);
+      for (final ScriptBuilder builder : builders) {
+        futures.add(executor.submit(new Callable<Void>() {
+          public Void call() throws MojoExecutionException {
+            writeScript(scriptFolder, builder);
+            return null;
+          }
+        }));
+      }
+
+      awaitScripts(builders, futures);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private void awaitScripts(final ScriptBuilder[] builders,
+      final List<Future<Void>> futures) throws MojoExecutionException {
+    MojoExecutionException failure = null;
+    for (int i = 0; i < builders.length; i++) {
+      try {
+        futures.get(i).get();
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new MojoExecutionException(
+            "Interrupted while writing alias scripts.", e);
+      } catch (final ExecutionException e) {
+        final Throwable cause = e.getCause();
+        getLog().error("Cannot write script '" + builders[i].getId() + "': "
+            + cause.getMessage());
+        if (failure == null) {
+          failure = cause instanceof MojoExecutionException
+              ? (MojoExecutionException) cause
+              : new MojoExecutionException("Cannot write script '"
+                  + builders[i].getId() + "'.", cause);
+        }
+      }
+    }
+
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  /**
+   * Creates a factory for virtual threads if the Java runtime supports them.
+   * Otherwise the default factory for platform threads is returned.
+   *
+   * @return the factory to create threads to write scripts.
+   */
+  private static ThreadFactory createThreadFactory() {
+    try {
+      final Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      final Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+      return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+    } catch (final Exception e) {
+      return Executors.defaultThreadFactory();
+    }
+  }
+
+  private void writeScript(final File scriptFolder,
+      final ScriptBuilder builder) throws MojoExecutionException {
+    final File scriptFile = new File(scriptFolder, builder.getId());
     try {
-      final OutputStream out =
-          new BufferedOutputStream(new FileOutputStream(scriptFile));
+      final AtomicFileOutputStream stream =
+          openStream(scriptFolder, builder.getId());
       try {
-        IOUtils.write(script, out);
+        final Writer out = openWriter(stream, getCharset());
+        builder.writeScript(out);
+        out.close();
+        recordDigest(builder.getId(), stream);
       } finally {
-        IOUtils.closeQuietly(out);
+        stream.abort();
       }
     } catch (final Exception e) {
       throw new MojoExecutionException(
@@ -207,17 +565,289 @@ public class MavenAliasMojo extends AbstractMojo {
     }
   }
 
+  private void streamScripts(final File scriptFolder,
+      final ScriptBuilder[] builders, final AliasModelCache.Key key)
+      throws MojoExecutionException {
+    final AliasNameLengths lengths =
+        aliasNameWidth > 0 ? null : scanAliasNameLengths();
+
+    final AtomicFileOutputStream[] streams =
+        new AtomicFileOutputStream[builders.length];
+    final Writer[] writers = new Writer[builders.length];
+    try {
+      for (int i = 0; i < builders.length; i++) {
+        final ScriptBuilder builder = builders[i];
+        streams[i] = openStream(scriptFolder, builder.getId());
+        writers[i] = openWriter(streams[i], getCharset());
+        final int maxAliasNameLength = lengths != null
+            ? lengths.getMaxLength(builder.getId()) : aliasNameWidth;
+        builder.startStream(writers[i], maxAliasNameLength);
+      }
+
+      final AliasModel model =
+          AliasModelCache.get(session, key, isReadComments());
+      if (model != null) {
+        model.apply(builders);
+      } else {
+        final InputSource source = createSource();
+        final AliasesProcessor processor = createProcessor(source);
+        stream(processor, source, builders);
+      }
+
+      for (int i = 0; i < builders.length; i++) {
+        builders[i].finishStream();
+        writers[i].close();
+        recordDigest(builders[i].getId(), streams[i]);
+      }
+    } catch (final IOException e) {
+      throw new MojoExecutionException("Cannot write scripts to '"
+          + scriptFolder.getAbsolutePath() + "'.", e);
+    } finally {
+      for (final AtomicFileOutputStream stream : streams) {
+        if (stream != null) {
+          stream.abort();
+        }
+      }
+    }
+  }
+
+  private AtomicFileOutputStream openStream(final File scriptFolder,
+      final String path) throws IOException {
+    return new AtomicFileOutputStream(new File(scriptFolder, path),
+        previousFiles.get(path));
+  }
+
+  private void recordDigest(final String path,
+      final AtomicFileOutputStream stream) {
+    generatedFiles.put(path, stream.getDigest());
+  }
+
+  private static Writer openWriter(final AtomicFileOutputStream stream,
+      final Charset charset) {
+    return new BufferedWriter(new OutputStreamWriter(stream, charset));
+  }
+
+  private ScriptFileWriter createFileWriter(final File scriptFolder)
+      throws MojoExecutionException {
+    final Charset charset = getCharset();
+    return new ScriptFileWriter() {
+      public void write(final String path, final CharSequence content)
+          throws IOException {
+        write(path, new Content() {
+          public void writeTo(final Appendable out) throws IOException {
+            out.append(content);
+          }
+        });
+      }
+
+      public void write(final String path, final Content content)
+          throws IOException {
+        final File file = new File(scriptFolder, path);
+        final File folder = file.getParentFile();
+        if (!folder.exists() && !folder.mkdirs()) {
+          throw new IOException(
+              "Cannot create folder '" + folder.getAbsolutePath() + "'.");
+        }
+
+        final AtomicFileOutputStream stream = openStream(scriptFolder, path);
+        try {
+          final Writer out = openWriter(stream, charset);
+          content.writeTo(out);
+          out.close();
+          recordDigest(path, stream);
+        } finally {
+          stream.abort();
+        }
+      }
+    };
+  }
+
+  private Charset getCharset() throws MojoExecutionException {
+    if (StringUtils.isBlank(encoding)) {
+      return Charset.defaultCharset();
+    }
+
+    try {
+      return Charset.forName(encoding);
+    } catch (final IllegalArgumentException e) {
+      throw new MojoExecutionException(
+          "Unsupported encoding '" + encoding + "' for alias scripts.", e);
+    }
+  }
+
+  private AliasNameLengths scanAliasNameLengths()
+      throws MojoExecutionException {
+    final InputSource source = createSource();
+    try {
+      return AliasesProcessor.scanAliasNameLengths(source);
+    } catch (final Exception e) {
+      throw new MojoExecutionException(
+          "Cannot read alias XML from '" + source.getSystemId() + "'.", e);
+    }
+  }
+
+  private ScriptFingerprint createFingerprint(final AliasModelCache.Key key)
+      throws MojoExecutionException {
+    return new ScriptFingerprint.Builder().with("alias", key.getHash())
+        .with("scripts", scripts).with("helpAlias", helpAlias)
+        .with("intro", intro).with("extro", extro).with("docUrl", docUrl)
+        .with("addInstallationComment", addInstallationComment)
+        .with("streaming", streaming).with("lazy", lazy)
+        .with("helpFunction", helpFunction).with("helpLookup", helpLookup)
+        .with("macroFile", macroFile)
+        .with("extensionDispatcher", extensionDispatcher)
+        .with("dedupeCommands", dedupeCommands).with("minify", minify)
+        .with("catalogGuard", catalogGuard)
+        .with("aliasNameWidth", String.valueOf(aliasNameWidth))
+        .with("encoding", getCharset().name())
+        .with("pluginVersion", pluginVersion).build();
+  }
+
+  private void deleteFingerprint(final File scriptFolder)
+      throws MojoExecutionException {
+    try {
+      ScriptFingerprint.delete(scriptFolder);
+    } catch (final IOException e) {
+      throw new MojoExecutionException(
+          "Cannot delete fingerprint of alias scripts in '"
+              + scriptFolder.getAbsolutePath() + "'.", e);
+    }
+  }
+
+  /**
+   * Deletes the files recorded by the previous run that have not been
+   * generated by this run. Only files within the script folder are deleted.
+   * Folders left empty are deleted as well.
+   *
+   * @param scriptFolder the folder containing the generated scripts.
+   */
+  void deleteStaleFiles(final File scriptFolder) {
+    final String folderPath = getCanonicalPath(scriptFolder);
+    for (final String path : previousFiles.keySet()) {
+      if (generatedFiles.containsKey(path)) {
+        continue;
+      }
+
+      final File file = new File(scriptFolder, path);
+      final String filePath = getCanonicalPath(file);
+      if (folderPath == null || filePath == null
+          || !filePath.startsWith(folderPath + File.separatorChar)
+          || !file.isFile()) {
+        continue;
+      }
+
+      if (file.delete()) {
+        getLog().debug("Deleted stale file '" + path + "'.");
+        deleteEmptyFolders(file.getParentFile(), scriptFolder);
+      } else {
+        getLog().warn("Cannot delete stale file '" + file.getAbsolutePath()
+            + "'.");
+      }
+    }
+  }
+
+  private static String getCanonicalPath(final File file) {
+    try {
+      return file.getCanonicalPath();
+    } catch (final IOException e) {
+      return null;
+    }
+  }
+
+  private static void deleteEmptyFolders(final File folder,
+      final File scriptFolder) {
+    File current = folder;
+    while (current != null && !current.equals(scriptFolder)) {
+      final String[] children = current.list();
+      if (children == null || children.length > 0 || !current.delete()) {
+        return;
+      }
+      current = current.getParentFile();
+    }
+  }
+
+  private void storeFingerprint(final File scriptFolder,
+      final ScriptFingerprint fingerprint) {
+    try {
+      fingerprint.store(scriptFolder, generatedFiles);
+    } catch (final IOException e) {
+      getLog().warn("Cannot store fingerprint of alias scripts to '"
+          + scriptFolder.getAbsolutePath() + "': " + e.getMessage());
+    }
+  }
+
+  private static List<String> getIds(final ScriptBuilder[] builders) {
+    final List<String> ids = new ArrayList<String>(builders.length);
+    for (final ScriptBuilder builder : builders) {
+      ids.add(builder.getId());
+    }
+    return ids;
+  }
+
+  private AliasModelCache.Key createCacheKey() throws MojoExecutionException {
+    try {
+      return AliasModelCache.Key.create(new File(aliasLocation));
+    } catch (final IOException e) {
+      throw new MojoExecutionException(
+          "Cannot read alias XML file '" + aliasLocation + "'.", e);
+    }
+  }
+
+  private AliasModel readModel(final AliasModelCache.Key key)
+      throws MojoExecutionException {
+    return AliasModelCache.read(session, key, isReadComments(),
+        useModelSnapshot ? modelSnapshot : null,
+        new AliasModelCache.ModelReader<MojoExecutionException>() {
+          public AliasModel read() throws MojoExecutionException {
+            final InputSource source = createSource();
+            final AliasesProcessor processor = createProcessor(source);
+            try {
+              return processor.readModel();
+            } catch (final IllegalArgumentException e) {
+              throw new MojoExecutionException("Cannot read alias XML from '"
+                  + source.getSystemId() + "'.", e);
+            }
+          }
+        }, getLog());
+  }
+
   private AliasesProcessor createProcessor(final InputSource source)
       throws MojoExecutionException {
     try {
-      return new AliasesProcessor(source);
+      final AliasesProcessor processor =
+          new AliasesProcessor(source, useDomParser);
+      processor.setReadComments(isReadComments());
+      return processor;
     } catch (final Exception e) {
       throw new MojoExecutionException(
           "Cannot read alias XML from '" + source.getSystemId() + "'.", e);
     }
   }
 
-  private ScriptBuilder[] createBuilders() {
+  /**
+   * Checks whether the scripts show the comments of aliases. Only the lookup
+   * of the Bash help function does, all other output skips comments.
+   *
+   * @return <code>true</code> if comments are to be read, <code>false</code>
+   *         otherwise.
+   */
+  private boolean isReadComments() {
+    return helpLookup;
+  }
+
+  private static void stream(final AliasesProcessor processor,
+      final InputSource source, final ScriptBuilder[] builders)
+      throws MojoExecutionException {
+    try {
+      processor.stream(builders);
+    } catch (final IllegalArgumentException e) {
+      throw new MojoExecutionException(
+          "Cannot read alias XML from '" + source.getSystemId() + "'.", e);
+    }
+  }
+
+  private ScriptBuilder[] createBuilders(final File scriptFolder)
+      throws MojoExecutionException {
     if (scripts == null || scripts.length == 0) {
       scripts = new String[] {WindowsScriptBuilder.ID, BashScriptBuilder.ID};
     }
@@ -226,24 +856,43 @@ public class MavenAliasMojo extends AbstractMojo {
     int counter = 0;
     for (final String script : scripts) {
       if (WindowsScriptBuilder.ID.equals(script)) {
-        builders[counter++] = createWindowsScriptBuilder();
+        builders[counter++] = createWindowsScriptBuilder(scriptFolder);
       } else if (BashScriptBuilder.ID.equals(script)) {
-        builders[counter++] = createBashScriptBuilder();
+        builders[counter++] = createBashScriptBuilder(scriptFolder);
       } else {
         getLog().info("Skipping unrecognized script type '" + script + "'.");
       }
     }
 
-    return builders;
+    return counter < builders.length ? Arrays.copyOf(builders, counter)
+        : builders;
   }
 
-  private ScriptBuilder createWindowsScriptBuilder() {
-    final ScriptBuilder builder = new WindowsScriptBuilder(helpAlias);
+  private ScriptBuilder createWindowsScriptBuilder(final File scriptFolder)
+      throws MojoExecutionException {
+    final WindowsScriptBuilder builder = new WindowsScriptBuilder(helpAlias);
+    if (macroFile) {
+      builder.setMacroFile(createFileWriter(scriptFolder));
+    }
+    if (minify) {
+      builder.setMinify(createFileWriter(scriptFolder));
+    }
     return initScriptBuilder(builder);
   }
 
-  private ScriptBuilder createBashScriptBuilder() {
-    final ScriptBuilder builder = new BashScriptBuilder(helpAlias);
+  private ScriptBuilder createBashScriptBuilder(final File scriptFolder)
+      throws MojoExecutionException {
+    final BashScriptBuilder builder = new BashScriptBuilder(helpAlias);
+    builder.setHelpFunction(helpFunction);
+    builder.setHelpLookup(helpLookup);
+    builder.setExtensionDispatcher(extensionDispatcher);
+    builder.setDedupeCommands(dedupeCommands);
+    if (lazy) {
+      builder.setLazy(createFileWriter(scriptFolder));
+    }
+    if (minify) {
+      builder.setMinify(createFileWriter(scriptFolder));
+    }
     return initScriptBuilder(builder);
   }
 
@@ -278,12 +927,42 @@ public class MavenAliasMojo extends AbstractMojo {
     }
   }
 
-  private void logProcessingCompleted() {
+  private void logProcessingCompleted(final File scriptFolder,
+      final ScriptBuilder[] builders) {
     if (verbose) {
+      if (minify) {
+        for (final ScriptBuilder builder : builders) {
+          logSizes(scriptFolder, builder.getId());
+        }
+      }
+      if (dedupeCommands) {
+        for (final ScriptBuilder builder : builders) {
+          if (builder instanceof BashScriptBuilder) {
+            logDedupeRatio((BashScriptBuilder) builder);
+          }
+        }
+      }
       getLog().info("Alias script generated successfully.");
     }
   }
 
+  private void logSizes(final File scriptFolder, final String id) {
+    final long scriptSize = new File(scriptFolder, id).length();
+    final long helpSize = new File(scriptFolder, id + ".help").length();
+    getLog().info(String.format(Locale.ENGLISH,
+        "Script '%s': %d bytes sourced, %d bytes of help read on demand.", id,
+        scriptSize, helpSize));
+  }
+
+  private void logDedupeRatio(final BashScriptBuilder builder) {
+    final int functions = builder.getFunctionCount();
+    final int forwarded = builder.getForwardedFunctionCount();
+    final double ratio = functions > 0 ? 100.0 * forwarded / functions : 0.0;
+    getLog().info(String.format(Locale.ENGLISH,
+        "Script '%s': %d of %d functions forward to identical commands"
+            + " (%.1f%%).", builder.getId(), forwarded, functions, ratio));
+  }
+
   // --- object basics --------------------------------------------------------
 
 }
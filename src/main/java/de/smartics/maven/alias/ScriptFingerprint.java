@@ -0,0 +1,397 @@
+/*
+ * Copyright 2012-2024 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.smartics.maven.alias;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.codehaus.plexus.util.StringUtils;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A fingerprint over all inputs that determine the content of the generated
+ * alias scripts. The fingerprint is stored in a small state file next to the
+ * scripts so that a subsequent build is able to detect that nothing has
+ * changed.
+ */
+public final class ScriptFingerprint {
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  /**
+   * The name of the file within the script folder that stores the fingerprint
+   * of the last successful generation.
+   * <p>
+   * The value of this constant is {@value}.
+   * </p>
+   */
+  public static final String STATE_FILE_NAME = ".alias-state";
+
+  /**
+   * The algorithm to calculate the fingerprint.
+   * <p>
+   * The value of this constant is {@value}.
+   * </p>
+   */
+  private static final String ALGORITHM = "SHA-1";
+
+  /**
+   * The encoding to read and write the state file and to encode parameter
+   * values.
+   * <p>
+   * The value of this constant is {@value}.
+   * </p>
+   */
+  private static final String ENCODING = "UTF-8";
+
+  /**
+   * The separator between the path of a generated file and its digest in the
+   * state file.
+   * <p>
+   * The value of this constant is {@value}.
+   * </p>
+   */
+  private static final char FILE_SEPARATOR = '\t';
+
+  // --- members --------------------------------------------------------------
+
+  /**
+   * The hex encoded fingerprint.
+   */
+  private final String value;
+
+  // ****************************** Initializer *******************************
+
+  // ****************************** Constructors ******************************
+
+  private ScriptFingerprint(final String value) {
+    this.value = value;
+  }
+
+  // ****************************** Inner Classes *****************************
+
+  /**
+   * The builder for {@link ScriptFingerprint} instances.
+   */
+  public static final class Builder {
+    // ******************************** Fields ********************************
+
+    // --- constants ----------------------------------------------------------
+
+    // --- members ------------------------------------------------------------
+
+    /**
+     * The digest to add the inputs to.
+     */
+    private final MessageDigest digest;
+
+    // ***************************** Initializer ******************************
+
+    // ***************************** Constructors *****************************
+
+    /**
+     * Default constructor.
+     *
+     * @throws IllegalStateException if the digest algorithm is not supported
+     *         by the platform.
+     */
+    public Builder() throws IllegalStateException {
+      digest = createDigest();
+    }
+
+    // ***************************** Inner Classes ****************************
+
+    // ******************************** Methods *******************************
+
+    // --- init ---------------------------------------------------------------
+
+    // --- get&set ------------------------------------------------------------
+
+    /**
+     * Adds the contents of the given file to the fingerprint. The contents is
+     * digested separately and added as a parameter with the fixed length
+     * digest as its value, so that the contents cannot be confused with the
+     * parameters added before or after it.
+     *
+     * @param file the file whose contents is to be added.
+     * @return a reference to this builder instance.
+     * @throws IOException if the file cannot be read.
+     */
+    public Builder withFile(final File file) throws IOException {
+      final MessageDigest fileDigest = createDigest();
+      final InputStream in = new BufferedInputStream(new FileInputStream(file));
+      try {
+        final byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+          fileDigest.update(buffer, 0, read);
+        }
+      } finally {
+        IOUtils.closeQuietly(in);
+      }
+      return with("file", FileDigest.toHex(fileDigest.digest()));
+    }
+
+    /**
+     * Adds the named parameter to the fingerprint. A <code>null</code> value
+     * is distinguished from an empty string.
+     *
+     * @param key the name of the parameter.
+     * @param value the value of the parameter (may be <code>null</code>).
+     * @return a reference to this builder instance.
+     */
+    public Builder with(final String key, final String value) {
+      update(key);
+      if (value != null) {
+        digest.update((byte) '=');
+        update(value);
+      }
+      digest.update((byte) '\n');
+      return this;
+    }
+
+    /**
+     * Adds the named flag to the fingerprint.
+     *
+     * @param key the name of the parameter.
+     * @param value the value of the parameter.
+     * @return a reference to this builder instance.
+     */
+    public Builder with(final String key, final boolean value) {
+      return with(key, String.valueOf(value));
+    }
+
+    /**
+     * Adds the named list of values to the fingerprint.
+     *
+     * @param key the name of the parameter.
+     * @param values the values of the parameter (may be <code>null</code>).
+     * @return a reference to this builder instance.
+     */
+    public Builder with(final String key, final String[] values) {
+      if (values == null) {
+        return with(key, (String) null);
+      }
+
+      for (int i = 0; i < values.length; i++) {
+        with(key + '[' + i + ']', values[i]);
+      }
+      return this;
+    }
+
+    private void update(final String value) {
+      try {
+        digest.update(value.getBytes(ENCODING));
+      } catch (final UnsupportedEncodingException e) {
+        throw new IllegalStateException(
+            "Encoding '" + ENCODING + "' is not supported.", e);
+      }
+    }
+
+    // --- business -----------------------------------------------------------
+
+    /**
+     * Creates the fingerprint instance.
+     *
+     * @return the fingerprint of all inputs added to this builder.
+     */
+    public ScriptFingerprint build() {
+      return new ScriptFingerprint(FileDigest.toHex(digest.digest()));
+    }
+
+    // --- object basics ------------------------------------------------------
+  }
+
+  // ********************************* Methods ********************************
+
+  // --- init -----------------------------------------------------------------
+
+  private static MessageDigest createDigest() throws IllegalStateException {
+    try {
+      return MessageDigest.getInstance(ALGORITHM);
+    } catch (final NoSuchAlgorithmException e) {
+      throw new IllegalStateException(
+          "Digest algorithm '" + ALGORITHM + "' is not supported.", e);
+    }
+  }
+
+  // --- get&set --------------------------------------------------------------
+
+  /**
+   * Returns the hex encoded fingerprint.
+   *
+   * @return the hex encoded fingerprint.
+   */
+  public String getValue() {
+    return value;
+  }
+
+  // --- business -------------------------------------------------------------
+
+  /**
+   * Checks whether the scripts in the given folder have been generated from
+   * inputs with this fingerprint. Besides the scripts, every file recorded in
+   * the state file by {@link #store(File, Map)} is required to exist.
+   *
+   * @param scriptFolder the folder containing the generated scripts.
+   * @param scriptIds the identifiers of the scripts that are required to
+   *        exist.
+   * @return <code>true</code> if the stored fingerprint matches and all
+   *         generated files exist, <code>false</code> otherwise.
+   */
+  public boolean isUpToDate(final File scriptFolder,
+      final Iterable<String> scriptIds) {
+    if (!exist(scriptFolder, scriptIds)) {
+      return false;
+    }
+
+    try {
+      final List<String> lines = readState(scriptFolder);
+      if (lines.isEmpty() || !value.equals(lines.get(0).trim())) {
+        return false;
+      }
+      return exist(scriptFolder, parseFiles(lines).keySet());
+    } catch (final IOException e) {
+      return false;
+    }
+  }
+
+  private static boolean exist(final File scriptFolder,
+      final Iterable<String> paths) {
+    for (final String path : paths) {
+      if (!new File(scriptFolder, path).isFile()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Reads the files recorded in the state file in the given folder.
+   *
+   * @param scriptFolder the folder containing the generated scripts.
+   * @return the digests of the recorded files by path relative to the script
+   *         folder. The digest is <code>null</code> if it has not been
+   *         recorded. The map is empty if there is no readable state file.
+   */
+  static Map<String, FileDigest> readFiles(final File scriptFolder) {
+    try {
+      return parseFiles(readState(scriptFolder));
+    } catch (final IOException e) {
+      return new LinkedHashMap<String, FileDigest>();
+    }
+  }
+
+  private static List<String> readState(final File scriptFolder)
+      throws IOException {
+    final File stateFile = new File(scriptFolder, STATE_FILE_NAME);
+    if (!stateFile.isFile()) {
+      return Collections.emptyList();
+    }
+    return FileUtils.readLines(stateFile, ENCODING);
+  }
+
+  private static Map<String, FileDigest> parseFiles(final List<String> lines) {
+    final Map<String, FileDigest> files =
+        new LinkedHashMap<String, FileDigest>();
+    for (final String line : lines.subList(Math.min(1, lines.size()),
+        lines.size())) {
+      final int separator = line.indexOf(FILE_SEPARATOR);
+      final String path =
+          (separator < 0 ? line : line.substring(0, separator)).trim();
+      if (StringUtils.isNotBlank(path)) {
+        files.put(path, separator < 0 ? null
+            : FileDigest.parse(line.substring(separator + 1)));
+      }
+    }
+    return files;
+  }
+
+  /**
+   * Stores this fingerprint to the state file in the given folder.
+   *
+   * @param scriptFolder the folder containing the generated scripts.
+   * @throws IOException if the state file cannot be written.
+   */
+  public void store(final File scriptFolder) throws IOException {
+    store(scriptFolder, Collections.<String, FileDigest> emptyMap());
+  }
+
+  /**
+   * Stores this fingerprint together with the paths and digests of the
+   * generated files to the state file in the given folder.
+   *
+   * @param scriptFolder the folder containing the generated scripts.
+   * @param files the digests of the generated files by path relative to the
+   *        script folder. The files are required to exist for the scripts to
+   *        be up-to-date. The digests allow the next generation to detect
+   *        unchanged files without reading them. A digest may be
+   *        <code>null</code>.
+   * @throws IOException if the state file cannot be written.
+   */
+  void store(final File scriptFolder, final Map<String, FileDigest> files)
+      throws IOException {
+    final List<String> lines = new ArrayList<String>(files.size() + 1);
+    lines.add(value);
+    for (final Map.Entry<String, FileDigest> entry : files.entrySet()) {
+      final FileDigest digest = entry.getValue();
+      lines.add(digest != null ? entry.getKey() + FILE_SEPARATOR + digest
+          : entry.getKey());
+    }
+    final File stateFile = new File(scriptFolder, STATE_FILE_NAME);
+    FileUtils.writeLines(stateFile, ENCODING, lines, "\n");
+  }
+
+  /**
+   * Deletes the state file in the given folder. Called before the scripts are
+   * generated so that an aborted generation is not taken for up-to-date.
+   *
+   * @param scriptFolder the folder containing the generated scripts.
+   * @throws IOException if the state file exists but cannot be deleted.
+   */
+  public static void delete(final File scriptFolder) throws IOException {
+    final File stateFile = new File(scriptFolder, STATE_FILE_NAME);
+    if (stateFile.exists() && !stateFile.delete()) {
+      throw new IOException(
+          "Cannot delete file '" + stateFile.getAbsolutePath() + "'.");
+    }
+  }
+
+  // --- object basics --------------------------------------------------------
+
+  /**
+   * Returns the string representation of the object.
+   *
+   * @return the string representation of the object.
+   */
+  @Override
+  public String toString() {
+    return value;
+  }
+}
@@ -25,6 +25,24 @@ public final class Alias {
 
   // --- constants ------------------------------------------------------------
 
+  /**
+   * The placeholder in the command to paste in the arguments passed to the
+   * alias.
+   * <p>
+   * The value of this constant is {@value}.
+   * </p>
+   */
+  public static final String ARGS_PLACEHOLDER = "{@args}";
+
+  /**
+   * The placeholder in the command for a bell (^G or unicode 0007). As XML 1.0
+   * does not allow that character we use this marker.
+   * <p>
+   * The value of this constant is {@value}.
+   * </p>
+   */
+  public static final String BELL_PLACEHOLDER = "{@bell}";
+
   // --- members --------------------------------------------------------------
 
   /**
@@ -37,6 +55,12 @@ public final class Alias {
    */
   private final String command;
 
+  /**
+   * The command compiled with the {@link #ARGS_PLACEHOLDER} and
+   * {@link #BELL_PLACEHOLDER} placeholders (in that order).
+   */
+  private final CommandTemplate commandTemplate;
+
   /**
    * The optional comment to be used for reports that provides detailed
    * information about the alias and the context of its usage.
@@ -63,6 +87,8 @@ public final class Alias {
   private Alias(final Builder builder) {
     this.name = builder.name;
     this.command = builder.command;
+    this.commandTemplate =
+        CommandTemplate.compile(command, ARGS_PLACEHOLDER, BELL_PLACEHOLDER);
     this.comment = builder.comment;
 
     this.passArgs = builder.passArgs;
@@ -248,6 +274,16 @@ public final class Alias {
     return command;
   }
 
+  /**
+   * Returns the command compiled with the {@link #ARGS_PLACEHOLDER} and
+   * {@link #BELL_PLACEHOLDER} placeholders (in that order).
+   *
+   * @return the compiled command.
+   */
+  public CommandTemplate getCommandTemplate() {
+    return commandTemplate;
+  }
+
   /**
    * Returns the optional comment to be used for reports that provides detailed
    * information about the alias and the context of its usage.
@@ -18,7 +18,10 @@ package de.smartics.maven.alias.domain;
 import org.codehaus.plexus.util.StringUtils;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Provides information about an extension of a number of aliases. An extension
@@ -48,6 +51,11 @@ public final class AliasExtension {
    */
   private final String template;
 
+  /**
+   * The template compiled with the {@link #PLACEHOLDER}.
+   */
+  private final CommandTemplate compiledTemplate;
+
   /**
    * The list of groups the extension is applied too.
    */
@@ -58,6 +66,17 @@ public final class AliasExtension {
    */
   private final List<String> applyToAliases;
 
+  /**
+   * The names of the groups the extension is applied to for fast lookups.
+   */
+  private final Set<String> applyToGroupSet;
+
+  /**
+   * The names of the single aliases the extension is applied to for fast
+   * lookups.
+   */
+  private final Set<String> applyToAliasSet;
+
   /**
    * A short sequence of characters that help to understand what the extension
    * name means.
@@ -81,8 +100,13 @@ public final class AliasExtension {
   private AliasExtension(final Builder builder) {
     this.name = builder.name;
     this.template = builder.template;
-    this.applyToGroups = new ArrayList<String>(builder.applyToGroups);
-    this.applyToAliases = new ArrayList<String>(builder.applyToAliases);
+    this.compiledTemplate = CommandTemplate.compile(template, PLACEHOLDER);
+    this.applyToGroups = Collections
+        .unmodifiableList(new ArrayList<String>(builder.applyToGroups));
+    this.applyToAliases = Collections
+        .unmodifiableList(new ArrayList<String>(builder.applyToAliases));
+    this.applyToGroupSet = new HashSet<String>(applyToGroups);
+    this.applyToAliasSet = new HashSet<String>(applyToAliases);
     this.mnemonic = builder.mnemonic;
     this.comment = builder.comment;
     this.env = builder.env;
@@ -353,8 +377,8 @@ public final class AliasExtension {
       throw new NullPointerException("Alias must not be 'null'");
     }
 
-    return (group != null && applyToGroups.contains(group))
-        || applyToAliases.contains(alias.getName());
+    return (group != null && applyToGroupSet.contains(group))
+        || applyToAliasSet.contains(alias.getName());
   }
 
   /**
@@ -370,30 +394,64 @@ public final class AliasExtension {
   public Alias apply(final String group, final Alias alias)
       throws NullPointerException {
     if (isApplicable(group, alias)) {
-      final Alias.Builder builder = new Alias.Builder(alias);
-
-      final String originalName = alias.getName();
-      final String extensionName = originalName + name;
-
-      final String originalCommand = alias.getCommand();
-      final String extensionCommand = template.replace(PLACEHOLDER,
-          originalCommand + (alias.isPassArgs() ? " {@args}" : ""));
-
-      // final String originalComment = alias.getComment();
-      // final String extensionComment =
-      // (originalComment != null ? (comment != null ? originalComment + ' '
-      // + comment
-      // : originalComment) : null);
-      builder.withName(extensionName).withCommand(extensionCommand)
-          .withComment(alias.getComment()).withPassArgs(false).withEnv(env);
-
-      final Alias extensionAlias = builder.build();
-      return extensionAlias;
+      return extend(alias);
     }
 
     return null;
   }
 
+  /**
+   * Applies the extension to the alias without checking applicability.
+   *
+   * @param alias the alias to apply the extension to.
+   * @return the extended alias.
+   */
+  Alias extend(final Alias alias) {
+    final Alias.Builder builder = new Alias.Builder(alias);
+
+    final String originalName = alias.getName();
+    final String extensionName = originalName + name;
+
+    final String originalCommand = alias.getCommand();
+    final StringBuilder extensionCommand = new StringBuilder(
+        template.length() + originalCommand.length() + 16);
+    compiledTemplate.render(extensionCommand, alias.isPassArgs()
+        ? originalCommand + ' ' + Alias.ARGS_PLACEHOLDER : originalCommand);
+
+    // final String originalComment = alias.getComment();
+    // final String extensionComment =
+    // (originalComment != null ? (comment != null ? originalComment + ' '
+    // + comment
+    // : originalComment) : null);
+    builder.withName(extensionName).withCommand(extensionCommand.toString())
+        .withComment(alias.getComment()).withPassArgs(false).withEnv(env);
+
+    final Alias extensionAlias = builder.build();
+    return extensionAlias;
+  }
+
+  /**
+   * Creates an alias that applies the template of this extension to the given
+   * command. Script builders use this to define the template once as a
+   * function that wraps the command passed to it.
+   *
+   * @param aliasName the name of the alias to create.
+   * @param command the command to paste into the template. Arguments are not
+   *        appended to the command.
+   * @return the alias running the template with the given command.
+   * @throws IllegalArgumentException if {@code aliasName} or {@code command}
+   *         is blank.
+   */
+  public Alias wrap(final String aliasName, final String command)
+      throws IllegalArgumentException {
+    final StringBuilder wrapperCommand =
+        new StringBuilder(template.length() + command.length() + 16);
+    compiledTemplate.render(wrapperCommand, command);
+    return new Alias.Builder().withName(aliasName)
+        .withCommand(wrapperCommand.toString()).withComment(comment)
+        .withPassArgs(false).withEnv(env).build();
+  }
+
   // --- object basics --------------------------------------------------------
 
 }
@@ -16,10 +16,19 @@
 package de.smartics.maven.alias.domain;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * A group of aliases.
+ * <p>
+ * Aliases are added while the group is read. A {@link #freeze() frozen}
+ * group is immutable and may be shared between threads. It provides a view
+ * of its aliases for each environment that is computed once when the group is
+ * frozen.
+ * </p>
  */
 public final class AliasGroup {
   // ********************************* Fields *********************************
@@ -41,7 +50,24 @@ public final class AliasGroup {
   /**
    * The list of aliases belonging to this group.
    */
-  private final List<Alias> aliases = new ArrayList<Alias>();
+  private final List<Alias> aliases;
+
+  /**
+   * The flag signals that the group is immutable.
+   */
+  private final boolean frozen;
+
+  /**
+   * The aliases that belong to no specific environment. Only set if the group
+   * is frozen.
+   */
+  private final List<Alias> commonAliases;
+
+  /**
+   * The aliases for each environment referenced by an alias of this group. Only
+   * set if the group is frozen.
+   */
+  private final Map<String, List<Alias>> environmentAliases;
 
   // ****************************** Initializer *******************************
 
@@ -54,8 +80,22 @@ public final class AliasGroup {
    * @param comment the optional description of the group.
    */
   public AliasGroup(final String name, final String comment) {
+    this(name, comment, new ArrayList<Alias>(), false);
+  }
+
+  private AliasGroup(final String name, final String comment,
+      final List<Alias> aliases, final boolean frozen) {
     this.name = name;
     this.comment = comment;
+    this.aliases = aliases;
+    this.frozen = frozen;
+    if (frozen) {
+      this.commonAliases = Collections.unmodifiableList(filter(aliases, null));
+      this.environmentAliases = createEnvironmentViews(aliases);
+    } else {
+      this.environmentAliases = null;
+      this.commonAliases = null;
+    }
   }
 
   // ****************************** Inner Classes *****************************
@@ -64,6 +104,30 @@ public final class AliasGroup {
 
   // --- init -----------------------------------------------------------------
 
+  private static Map<String, List<Alias>> createEnvironmentViews(
+      final List<Alias> aliases) {
+    final Map<String, List<Alias>> views = new HashMap<String, List<Alias>>();
+    for (final Alias alias : aliases) {
+      final String env = alias.getEnv();
+      if (env != null && !views.containsKey(env)) {
+        views.put(env, Collections.unmodifiableList(filter(aliases, env)));
+      }
+    }
+    return views;
+  }
+
+  private static List<Alias> filter(final List<Alias> aliases,
+      final String env) {
+    final List<Alias> filtered = new ArrayList<Alias>(aliases.size());
+    for (final Alias alias : aliases) {
+      final String aliasEnv = alias.getEnv();
+      if (aliasEnv == null || aliasEnv.equals(env)) {
+        filtered.add(alias);
+      }
+    }
+    return filtered;
+  }
+
   // --- get&set --------------------------------------------------------------
 
   /**
@@ -87,10 +151,41 @@ public final class AliasGroup {
   /**
    * Returns the list of aliases belonging to this group.
    *
-   * @return the list of aliases belonging to this group.
+   * @return the unmodifiable list of aliases belonging to this group.
    */
   public List<Alias> getAliases() {
-    return aliases;
+    return frozen ? aliases : Collections.unmodifiableList(aliases);
+  }
+
+  /**
+   * Returns the aliases belonging to the given {@code env}. These are the
+   * aliases with no environment and the aliases of the given environment in
+   * the order of the group.
+   * <p>
+   * For a frozen group the view has been computed when the group has been
+   * frozen and is shared by all callers.
+   * </p>
+   *
+   * @param env the identifier of the environment to use for filtering.
+   * @return the unmodifiable list of aliases of the environment.
+   */
+  public List<Alias> getAliases(final String env) {
+    if (!frozen) {
+      return Collections.unmodifiableList(filter(aliases, env));
+    }
+
+    final List<Alias> view = environmentAliases.get(env);
+    return view != null ? view : commonAliases;
+  }
+
+  /**
+   * Checks whether or not this group is immutable.
+   *
+   * @return <code>true</code> if aliases cannot be added to this group,
+   *         <code>false</code> otherwise.
+   */
+  public boolean isFrozen() {
+    return frozen;
   }
 
   // --- business -------------------------------------------------------------
@@ -113,16 +208,21 @@ public final class AliasGroup {
    *         matches {@code env}.
    */
   public AliasGroup filter(final String env) {
-    final AliasGroup clone = new AliasGroup(name, comment);
+    return new AliasGroup(name, comment, getAliases(env), true);
+  }
 
-    for (final Alias alias : aliases) {
-      final String aliasEnv = alias.getEnv();
-      if (aliasEnv == null || env.equals(aliasEnv)) {
-        clone.aliases.add(alias);
-      }
+  /**
+   * Returns an immutable copy of this group.
+   *
+   * @return this group if it is already frozen, an immutable copy otherwise.
+   */
+  public AliasGroup freeze() {
+    if (frozen) {
+      return this;
     }
 
-    return clone;
+    return new AliasGroup(name, comment,
+        Collections.unmodifiableList(new ArrayList<Alias>(aliases)), true);
   }
 
   /**
@@ -130,11 +230,17 @@ public final class AliasGroup {
    *
    * @param alias the alias to add. Must not be <code>null</code>.
    * @throws NullPointerException if {@code alias} is <code>null</code>.
+   * @throws IllegalStateException if this group is frozen.
    */
-  public void addAlias(final Alias alias) throws NullPointerException {
+  public void addAlias(final Alias alias)
+      throws NullPointerException, IllegalStateException {
     if (alias == null) {
       throw new NullPointerException("'alias' must not be 'null'.");
     }
+    if (frozen) {
+      throw new IllegalStateException(
+          "Cannot add alias to frozen group '" + name + "'.");
+    }
     aliases.add(alias);
   }
 
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2012-2024 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.smartics.maven.alias.domain;
+
+/**
+ * Receives the elements of an alias XML document in document order as soon as
+ * they have been read.
+ */
+interface AliasHandler {
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  // ****************************** Initializer *******************************
+
+  // ****************************** Inner Classes *****************************
+
+  // ********************************* Methods ********************************
+
+  // --- get&set --------------------------------------------------------------
+
+  // --- business -------------------------------------------------------------
+
+  /**
+   * Handles an extension read from the document. Extensions are reported in
+   * document order, so an extension may be reported after groups it applies
+   * to. Extensions apply to all groups of the document regardless of their
+   * position, the handler is therefore required to apply the extension to the
+   * groups it has already handled.
+   *
+   * @param extension the extension read.
+   */
+  void handleExtension(AliasExtension extension);
+
+  /**
+   * Handles an alias group read from the document. The group contains all its
+   * aliases.
+   *
+   * @param group the group read.
+   */
+  void handleGroup(AliasGroup group);
+
+  // --- object basics --------------------------------------------------------
+
+}
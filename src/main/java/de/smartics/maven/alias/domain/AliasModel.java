@@ -0,0 +1,210 @@
+/*
+ * Copyright 2012-2024 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.smartics.maven.alias.domain;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The alias groups and expanded extension groups read from an alias XML
+ * document. The model is applied to any number of collectors without reading
+ * the document again.
+ * <p>
+ * The model and all its groups are immutable and may be shared between
+ * threads.
+ * </p>
+ */
+public final class AliasModel {
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  // --- members --------------------------------------------------------------
+
+  /**
+   * The alias groups in document order.
+   */
+  private final List<AliasGroup> groups;
+
+  /**
+   * The extension groups with the aliases they extend.
+   */
+  private final List<ExtensionGroup> extensionGroups;
+
+  /**
+   * The flag signals that comments have been read.
+   */
+  private final boolean comments;
+
+  // ****************************** Initializer *******************************
+
+  // ****************************** Constructors ******************************
+
+  AliasModel(final List<AliasGroup> groups,
+      final List<ExtensionGroup> extensionGroups, final boolean comments) {
+    final List<AliasGroup> frozenGroups =
+        new ArrayList<AliasGroup>(groups.size());
+    for (final AliasGroup group : groups) {
+      frozenGroups.add(group.freeze());
+    }
+    this.groups = Collections.unmodifiableList(frozenGroups);
+    this.extensionGroups = freeze(extensionGroups);
+    this.comments = comments;
+  }
+
+  // ****************************** Inner Classes *****************************
+
+  /**
+   * Records the groups reported by the processor.
+   */
+  static final class Recorder implements AliasCollector {
+    // ******************************** Fields ********************************
+
+    // --- constants ----------------------------------------------------------
+
+    // --- members ------------------------------------------------------------
+
+    /**
+     * The recorded alias groups.
+     */
+    private final List<AliasGroup> groups = new ArrayList<AliasGroup>();
+
+    /**
+     * The recorded extension groups.
+     */
+    private List<ExtensionGroup> extensionGroups =
+        Collections.<ExtensionGroup> emptyList();
+
+    /**
+     * The flag signals that comments are read.
+     */
+    private final boolean comments;
+
+    // ***************************** Initializer ******************************
+
+    // ***************************** Constructors *****************************
+
+    Recorder(final boolean comments) {
+      this.comments = comments;
+    }
+
+    // ***************************** Inner Classes ****************************
+
+    // ******************************** Methods *******************************
+
+    // --- init ---------------------------------------------------------------
+
+    // --- get&set ------------------------------------------------------------
+
+    // --- business -----------------------------------------------------------
+
+    public void addAliases(final AliasGroup group) {
+      groups.add(group);
+    }
+
+    public void setExtensionGroups(
+        final List<ExtensionGroup> extensionGroups) {
+      this.extensionGroups = extensionGroups;
+    }
+
+    /**
+     * Creates the model from the recorded groups.
+     *
+     * @return the model.
+     */
+    AliasModel build() {
+      return new AliasModel(groups, extensionGroups, comments);
+    }
+
+    // --- object basics ------------------------------------------------------
+  }
+
+  // ********************************* Methods ********************************
+
+  // --- init -----------------------------------------------------------------
+
+  /**
+   * Returns an unmodifiable list of immutable copies of the given extension
+   * groups.
+   *
+   * @param extensionGroups the extension groups to freeze.
+   * @return the frozen extension groups.
+   */
+  static List<ExtensionGroup> freeze(
+      final List<ExtensionGroup> extensionGroups) {
+    final List<ExtensionGroup> frozenGroups =
+        new ArrayList<ExtensionGroup>(extensionGroups.size());
+    for (final ExtensionGroup extensionGroup : extensionGroups) {
+      frozenGroups.add(extensionGroup.freeze());
+    }
+    return Collections.unmodifiableList(frozenGroups);
+  }
+
+  // --- get&set --------------------------------------------------------------
+
+  /**
+   * Returns the alias groups in document order.
+   *
+   * @return the alias groups.
+   */
+  public List<AliasGroup> getGroups() {
+    return groups;
+  }
+
+  /**
+   * Returns the extension groups with the aliases they extend.
+   *
+   * @return the extension groups.
+   */
+  public List<ExtensionGroup> getExtensionGroups() {
+    return extensionGroups;
+  }
+
+  /**
+   * Checks whether or not the comments of extensions, groups and aliases have
+   * been read.
+   *
+   * @return <code>true</code> if comments have been read, <code>false</code>
+   *         if all comments are <code>null</code>.
+   */
+  public boolean hasComments() {
+    return comments;
+  }
+
+  // --- business -------------------------------------------------------------
+
+  /**
+   * Applies the groups of this model to the given {@code collectors} in the
+   * same order as {@link AliasesProcessor#process(AliasCollector...)}.
+   *
+   * @param collectors the collectors to add the groups to.
+   */
+  public void apply(final AliasCollector... collectors) {
+    for (final AliasGroup group : groups) {
+      for (final AliasCollector collector : collectors) {
+        collector.addAliases(group);
+      }
+    }
+
+    for (final AliasCollector collector : collectors) {
+      collector.setExtensionGroups(extensionGroups);
+    }
+  }
+
+  // --- object basics --------------------------------------------------------
+
+}
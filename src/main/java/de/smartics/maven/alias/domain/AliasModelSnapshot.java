@@ -0,0 +1,467 @@
+/*
+ * Copyright 2012-2024 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.smartics.maven.alias.domain;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stores an {@link AliasModel} in a compact binary file and loads it again
+ * without parsing the alias XML document.
+ * <p>
+ * The file starts with a header containing the hash of the alias XML document
+ * the model has been read from. All strings of the model are stored once in a
+ * table of length prefixed UTF-8 sequences, the structure of the model refers
+ * to the strings by index. The file is read into a heap buffer at once, so
+ * it is not kept open and may be replaced while the model is in use. All
+ * counts and lengths are checked against the size of the file before memory is
+ * allocated for them.
+ * </p>
+ */
+public final class AliasModelSnapshot {
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  /**
+   * The magic number at the start of each snapshot file.
+   */
+  private static final int MAGIC = 0x414c4d53;
+
+  /**
+   * The version of the file format. Snapshots of other versions are ignored.
+   */
+  private static final int VERSION = 2;
+
+  /**
+   * The index referring to a <code>null</code> string.
+   */
+  private static final int NULL_INDEX = -1;
+
+  /**
+   * The number of values in the structure for each alias.
+   */
+  private static final int VALUES_PER_ALIAS = 5;
+
+  /**
+   * The minimum number of values in the structure for each group.
+   */
+  private static final int MIN_VALUES_PER_GROUP = 3;
+
+  /**
+   * The minimum number of values in the structure for each extension group.
+   */
+  private static final int MIN_VALUES_PER_EXTENSION = 8;
+
+  /**
+   * The encoding of strings in the string table.
+   */
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+
+  // --- members --------------------------------------------------------------
+
+  // ****************************** Initializer *******************************
+
+  // ****************************** Constructors ******************************
+
+  private AliasModelSnapshot() {}
+
+  // ****************************** Inner Classes *****************************
+
+  /**
+   * Collects the strings of a model and assigns an index to each of them.
+   */
+  private static final class StringTable {
+    // ******************************** Fields ********************************
+
+    // --- constants ----------------------------------------------------------
+
+    // --- members ------------------------------------------------------------
+
+    /**
+     * The strings in the order of their indices.
+     */
+    private final List<String> strings = new ArrayList<String>();
+
+    /**
+     * The index of each string.
+     */
+    private final Map<String, Integer> indices =
+        new HashMap<String, Integer>();
+
+    // ***************************** Initializer ******************************
+
+    // ***************************** Constructors *****************************
+
+    // ***************************** Inner Classes ****************************
+
+    // ******************************** Methods *******************************
+
+    // --- init ---------------------------------------------------------------
+
+    // --- get&set ------------------------------------------------------------
+
+    // --- business -----------------------------------------------------------
+
+    private int indexOf(final String string) {
+      if (string == null) {
+        return NULL_INDEX;
+      }
+
+      final Integer index = indices.get(string);
+      if (index != null) {
+        return index;
+      }
+
+      final int newIndex = strings.size();
+      strings.add(string);
+      indices.put(string, newIndex);
+      return newIndex;
+    }
+
+    private void write(final DataOutputStream out) throws IOException {
+      out.writeInt(strings.size());
+      for (final String string : strings) {
+        final byte[] bytes = string.getBytes(UTF8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+      }
+    }
+
+    // --- object basics ------------------------------------------------------
+  }
+
+  /**
+   * Reads the structure of a model.
+   */
+  private static final class Cursor {
+    // ******************************** Fields ********************************
+
+    // --- constants ----------------------------------------------------------
+
+    // --- members ------------------------------------------------------------
+
+    /**
+     * The string table.
+     */
+    private final String[] strings;
+
+    /**
+     * The structure referring to the string table.
+     */
+    private final int[] structure;
+
+    /**
+     * The position of the next value in the structure.
+     */
+    private int position;
+
+    // ***************************** Initializer ******************************
+
+    // ***************************** Constructors *****************************
+
+    private Cursor(final String[] strings, final int[] structure) {
+      this.strings = strings;
+      this.structure = structure;
+    }
+
+    // ***************************** Inner Classes ****************************
+
+    // ******************************** Methods *******************************
+
+    // --- init ---------------------------------------------------------------
+
+    // --- get&set ------------------------------------------------------------
+
+    // --- business -----------------------------------------------------------
+
+    private int nextInt() throws IllegalArgumentException {
+      if (position >= structure.length) {
+        throw new IllegalArgumentException("Unexpected end of structure.");
+      }
+      return structure[position++];
+    }
+
+    private String nextString() throws IllegalArgumentException {
+      final int index = nextInt();
+      if (index == NULL_INDEX) {
+        return null;
+      }
+      if (index < 0 || index >= strings.length) {
+        throw new IllegalArgumentException(
+            "Invalid string index " + index + '.');
+      }
+      return strings[index];
+    }
+
+    private int nextCount(final int valuesPerItem)
+        throws IllegalArgumentException {
+      final int count = nextInt();
+      if (count < 0 || count > (structure.length - position) / valuesPerItem) {
+        throw new IllegalArgumentException("Invalid count " + count + '.');
+      }
+      return count;
+    }
+
+    private List<Alias> nextAliases() throws IllegalArgumentException {
+      final int count = nextCount(VALUES_PER_ALIAS);
+      final List<Alias> aliases = new ArrayList<Alias>(count);
+      for (int i = 0; i < count; i++) {
+        aliases.add(new Alias.Builder().withName(nextString())
+            .withCommand(nextString()).withComment(nextString())
+            .withEnv(nextString()).withPassArgs(nextInt() != 0).build());
+      }
+      return aliases;
+    }
+
+    // --- object basics ------------------------------------------------------
+  }
+
+  // ********************************* Methods ********************************
+
+  // --- init -----------------------------------------------------------------
+
+  // --- get&set --------------------------------------------------------------
+
+  // --- business -------------------------------------------------------------
+
+  /**
+   * Writes the model to the given file.
+   *
+   * @param file the file to write to. Missing parent folders are created.
+   * @param hash the hash of the alias XML document the model has been read
+   *        from.
+   * @param model the model to write.
+   * @throws IOException if the file cannot be written.
+   */
+  public static void write(final File file, final String hash,
+      final AliasModel model) throws IOException {
+    final StringTable table = new StringTable();
+    final int[] structure = createStructure(table, model);
+
+    final File folder = file.getAbsoluteFile().getParentFile();
+    if (!folder.exists() && !folder.mkdirs()) {
+      throw new IOException(
+          "Cannot create folder '" + folder.getAbsolutePath() + "'.");
+    }
+
+    final File tmpFile = new File(folder, file.getName() + ".tmp");
+    final DataOutputStream out = new DataOutputStream(
+        new BufferedOutputStream(new FileOutputStream(tmpFile)));
+    try {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      final byte[] hashBytes = hash.getBytes(UTF8);
+      out.writeInt(hashBytes.length);
+      out.write(hashBytes);
+      out.writeBoolean(model.hasComments());
+      table.write(out);
+      out.writeInt(structure.length);
+      for (final int value : structure) {
+        out.writeInt(value);
+      }
+      out.close();
+    } finally {
+      IOUtils.closeQuietly(out);
+    }
+
+    if (file.exists() && !file.delete() || !tmpFile.renameTo(file)) {
+      tmpFile.delete(); // NOPMD
+      throw new IOException(
+          "Cannot replace snapshot '" + file.getAbsolutePath() + "'.");
+    }
+  }
+
+  private static int[] createStructure(final StringTable table,
+      final AliasModel model) {
+    final List<Integer> structure = new ArrayList<Integer>();
+    final List<AliasGroup> groups = model.getGroups();
+    structure.add(groups.size());
+    for (final AliasGroup group : groups) {
+      structure.add(table.indexOf(group.getName()));
+      structure.add(table.indexOf(group.getComment()));
+      addAliases(structure, table, group.getAliases());
+    }
+
+    final List<ExtensionGroup> extensionGroups = model.getExtensionGroups();
+    structure.add(extensionGroups.size());
+    for (final ExtensionGroup extensionGroup : extensionGroups) {
+      final AliasExtension extension = extensionGroup.getExtension();
+      structure.add(table.indexOf(extension.getName()));
+      structure.add(table.indexOf(extension.getTemplate()));
+      structure.add(table.indexOf(extension.getMnemonic()));
+      structure.add(table.indexOf(extension.getComment()));
+      structure.add(table.indexOf(extension.getEnv()));
+      addStrings(structure, table, extension.getApplyToGroups());
+      addStrings(structure, table, extension.getApplyToAliases());
+      addAliases(structure, table, extensionGroup.getAliases());
+    }
+
+    final int[] values = new int[structure.size()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = structure.get(i);
+    }
+    return values;
+  }
+
+  private static void addAliases(final List<Integer> structure,
+      final StringTable table, final List<Alias> aliases) {
+    structure.add(aliases.size());
+    for (final Alias alias : aliases) {
+      structure.add(table.indexOf(alias.getName()));
+      structure.add(table.indexOf(alias.getCommand()));
+      structure.add(table.indexOf(alias.getComment()));
+      structure.add(table.indexOf(alias.getEnv()));
+      structure.add(alias.isPassArgs() ? 1 : 0);
+    }
+  }
+
+  private static void addStrings(final List<Integer> structure,
+      final StringTable table, final List<String> strings) {
+    structure.add(strings.size());
+    for (final String string : strings) {
+      structure.add(table.indexOf(string));
+    }
+  }
+
+  /**
+   * Reads the model from the given file if it has been written for the alias
+   * XML document with the given hash.
+   *
+   * @param file the file to read from.
+   * @param hash the hash of the current alias XML document.
+   * @return the model or <code>null</code> if the file does not exist, has
+   *         been written by another version or for another document.
+   * @throws IOException if the file exists but cannot be read or is corrupt.
+   */
+  public static AliasModel read(final File file, final String hash)
+      throws IOException {
+    if (!file.isFile()) {
+      return null;
+    }
+
+    final byte[] bytes = FileUtils.readFileToByteArray(file);
+    try {
+      return read(ByteBuffer.wrap(bytes), hash);
+    } catch (final BufferUnderflowException e) {
+      throw new IOException(
+          "Snapshot '" + file.getAbsolutePath() + "' is truncated.", e);
+    } catch (final IllegalArgumentException e) {
+      throw new IOException(
+          "Snapshot '" + file.getAbsolutePath() + "' is corrupt.", e);
+    }
+  }
+
+  private static AliasModel read(final ByteBuffer buffer, final String hash)
+      throws IllegalArgumentException {
+    if (buffer.remaining() < 8 || buffer.getInt() != MAGIC
+        || buffer.getInt() != VERSION || !hash.equals(readString(buffer))) {
+      return null;
+    }
+
+    final boolean comments = buffer.get() != 0;
+    final String[] strings = new String[readCount(buffer, 4)];
+    for (int i = 0; i < strings.length; i++) {
+      strings[i] = readString(buffer);
+    }
+
+    final int[] structure = new int[readCount(buffer, 4)];
+    buffer.asIntBuffer().get(structure);
+    return createModel(strings, structure, comments);
+  }
+
+  /**
+   * Reads a count and checks that the remaining bytes are able to hold that
+   * many items.
+   *
+   * @param buffer the buffer to read from.
+   * @param bytesPerItem the minimum number of bytes of each item.
+   * @return the count.
+   * @throws IllegalArgumentException if the count is negative or exceeds the
+   *         remaining bytes.
+   */
+  private static int readCount(final ByteBuffer buffer, final int bytesPerItem)
+      throws IllegalArgumentException {
+    final int count = buffer.getInt();
+    if (count < 0 || count > buffer.remaining() / bytesPerItem) {
+      throw new IllegalArgumentException("Invalid count " + count + '.');
+    }
+    return count;
+  }
+
+  private static String readString(final ByteBuffer buffer)
+      throws IllegalArgumentException {
+    final byte[] bytes = new byte[readCount(buffer, 1)];
+    buffer.get(bytes);
+    return new String(bytes, UTF8);
+  }
+
+  private static AliasModel createModel(final String[] strings,
+      final int[] structure, final boolean comments) {
+    final Cursor cursor = new Cursor(strings, structure);
+
+    final int groupCount = cursor.nextCount(MIN_VALUES_PER_GROUP);
+    final List<AliasGroup> groups = new ArrayList<AliasGroup>(groupCount);
+    for (int i = 0; i < groupCount; i++) {
+      final AliasGroup group =
+          new AliasGroup(cursor.nextString(), cursor.nextString());
+      for (final Alias alias : cursor.nextAliases()) {
+        group.addAlias(alias);
+      }
+      groups.add(group);
+    }
+
+    final int extensionCount = cursor.nextCount(MIN_VALUES_PER_EXTENSION);
+    final List<ExtensionGroup> extensionGroups =
+        new ArrayList<ExtensionGroup>(extensionCount);
+    for (int i = 0; i < extensionCount; i++) {
+      final AliasExtension.Builder builder = new AliasExtension.Builder()
+          .withName(cursor.nextString()).withTemplate(cursor.nextString())
+          .withMnemonic(cursor.nextString()).withComment(cursor.nextString())
+          .withEnv(cursor.nextString());
+      for (int j = cursor.nextCount(1); j > 0; j--) {
+        builder.addGroup(cursor.nextString());
+      }
+      for (int j = cursor.nextCount(1); j > 0; j--) {
+        builder.addAlias(cursor.nextString());
+      }
+      final ExtensionGroup extensionGroup =
+          new ExtensionGroup(builder.build());
+      for (final Alias alias : cursor.nextAliases()) {
+        extensionGroup.addExtendedAlias(alias);
+      }
+      extensionGroups.add(extensionGroup);
+    }
+
+    return new AliasModel(groups, extensionGroups, comments);
+  }
+
+  // --- object basics --------------------------------------------------------
+
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2012-2024 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.smartics.maven.alias.domain;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The maximum lengths of alias names per environment.
+ */
+public final class AliasNameLengths {
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  // --- members --------------------------------------------------------------
+
+  /**
+   * The maximum length of names of aliases without an environment.
+   */
+  private int maxLength;
+
+  /**
+   * The maximum length of names of aliases with an environment.
+   */
+  private final Map<String, Integer> maxLengthByEnv =
+      new HashMap<String, Integer>();
+
+  // ****************************** Initializer *******************************
+
+  // ****************************** Constructors ******************************
+
+  /**
+   * Default constructor.
+   */
+  AliasNameLengths() {}
+
+  // ****************************** Inner Classes *****************************
+
+  // ********************************* Methods ********************************
+
+  // --- init -----------------------------------------------------------------
+
+  // --- get&set --------------------------------------------------------------
+
+  /**
+   * Returns the maximum length of the names of all aliases that belong to the
+   * given environment. Aliases without an environment belong to every
+   * environment.
+   *
+   * @param env the identifier of the environment.
+   * @return the maximum length of names or <code>0</code> if there are no
+   *         aliases in the environment.
+   */
+  public int getMaxLength(final String env) {
+    final Integer length = maxLengthByEnv.get(env);
+    return length != null ? Math.max(maxLength, length) : maxLength;
+  }
+
+  // --- business -------------------------------------------------------------
+
+  /**
+   * Registers the name of an alias.
+   *
+   * @param env the environment of the alias (may be <code>null</code>).
+   * @param name the name of the alias.
+   */
+  void add(final String env, final String name) {
+    final int length = name != null ? name.length() : 0;
+    if (env == null) {
+      maxLength = Math.max(maxLength, length);
+    } else {
+      final Integer current = maxLengthByEnv.get(env);
+      if (current == null || current < length) {
+        maxLengthByEnv.put(env, length);
+      }
+    }
+  }
+
+  // --- object basics --------------------------------------------------------
+
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2012-2024 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.smartics.maven.alias.domain;
+
+/**
+ * Reads the extensions and groups of an alias XML document and reports them to
+ * an {@link AliasHandler}.
+ */
+interface AliasReader {
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  /**
+   * The prefix of supported namespaces.
+   * <p>
+   * The value of this constant is {@value}.
+   * </p>
+   */
+  String SUPPORTED_NAMESPACE_PREFIX = "http://smartics.de/alias/1.";
+
+  // ****************************** Initializer *******************************
+
+  // ****************************** Inner Classes *****************************
+
+  // ********************************* Methods ********************************
+
+  // --- get&set --------------------------------------------------------------
+
+  // --- business -------------------------------------------------------------
+
+  /**
+   * Reads the document and reports its extensions and groups to the handler.
+   *
+   * @param handler the handler to report to.
+   * @param readComments <code>true</code> to serialize the comments of
+   *        extensions, groups and aliases, <code>false</code> to skip them.
+   * @throws IllegalArgumentException if the document cannot be read or
+   *         contains invalid alias information.
+   * @throws IllegalStateException if the reader does not support to read the
+   *         document more than once and has already been read.
+   */
+  void read(AliasHandler handler, boolean readComments)
+      throws IllegalArgumentException, IllegalStateException;
+
+  // --- object basics --------------------------------------------------------
+
+}
@@ -15,14 +15,7 @@
  */
 package de.smartics.maven.alias.domain;
 
-import org.codehaus.plexus.util.StringUtils;
-import org.jdom2.Attribute;
-import org.jdom2.Document;
-import org.jdom2.Element;
 import org.jdom2.JDOMException;
-import org.jdom2.Namespace;
-import org.jdom2.input.SAXBuilder;
-import org.jdom2.output.XMLOutputter;
 import org.xml.sax.InputSource;
 
 import java.io.IOException;
@@ -32,45 +25,54 @@ import java.util.List;
 /**
  * Reads an alias XML file that follows the alias XSD and creates a shell
  * script.
+ * <p>
+ * Per default the document is read as a stream of StAX events without
+ * creating a document object model. The JDOM based reader is available as a
+ * fallback.
+ * </p>
+ * <p>
+ * Groups and extension groups are frozen before they are handed to the
+ * collectors, so collectors may share them between threads.
+ * </p>
+ * <p>
+ * The document is read once. {@link #readModel()} expands the extensions and
+ * keeps the result as an {@link AliasModel} that drives any number of
+ * collectors, the reader and its document are released afterwards.
+ * {@link #stream(AliasCollector...)} hands each group to the collectors as
+ * soon as it has been read. A {@link StreamingAliasCollector} is therefore able
+ * to write each group without keeping the whole catalog in memory.
+ * </p>
  */
 public final class AliasesProcessor {
   // ********************************* Fields *********************************
 
   // --- constants ------------------------------------------------------------
 
-  /**
-   * The prefix of supported namespaces.
-   * <p>
-   * The value of this constant is {@value}.
-   * </p>
-   */
-  private static final String SUPPORTED_NAMESPACE_PREFIX =
-      "http://smartics.de/alias/1.";
-
   // --- members ---------------------------------------------------------------
 
   /**
-   * The validated and parsed document.
+   * The reader of the alias XML document. Released as soon as the document has
+   * been read.
    */
-  private final Document doc;
+  private AliasReader reader;
 
   /**
-   * The alias namespace.
+   * The model read from the document. <code>null</code> until
+   * {@link #readModel()} has been called.
    */
-  private final Namespace nsAlias;
+  private AliasModel model;
 
   /**
-   * The collection of extension and their extended aliases.
+   * The flag signals that comments are to be read.
    */
-  private final List<ExtensionGroup> extensionGroups =
-      new ArrayList<ExtensionGroup>();
+  private boolean readComments = true;
 
   // ****************************** Initializer *******************************
 
   // ****************************** Constructors ******************************
 
   /**
-   * Default constructor.
+   * Default constructor. Uses the streaming reader.
    *
    * @param source the source to read the alias XML document from.
    * @throws NullPointerException if {@code source} is <code>null</code>.
@@ -79,19 +81,28 @@ public final class AliasesProcessor {
    */
   public AliasesProcessor(final InputSource source)
       throws NullPointerException, IOException, JDOMException {
+    this(source, false);
+  }
+
+  /**
+   * Constructor to select the reader.
+   *
+   * @param source the source to read the alias XML document from.
+   * @param useDomParser if <code>true</code> the document is read into a JDOM
+   *        document before it is processed, if <code>false</code> the
+   *        document is read as a stream of StAX events.
+   * @throws NullPointerException if {@code source} is <code>null</code>.
+   * @throws IOException if the XML document cannot be read.
+   * @throws JDOMException if the XML document cannot be parsed.
+   */
+  public AliasesProcessor(final InputSource source, final boolean useDomParser)
+      throws NullPointerException, IOException, JDOMException {
     if (source == null) {
       throw new NullPointerException("'source' must not be 'null'.");
     }
 
-    final SAXBuilder sax = new SAXBuilder();// XMLReaders.XSDVALIDATING);
-    this.doc = sax.build(source);
-    this.nsAlias = doc.getRootElement().getNamespace();
-    final String uri = nsAlias.getURI();
-    if (!uri.startsWith(SUPPORTED_NAMESPACE_PREFIX)) {
-      throw new JDOMException("The namespace '" + nsAlias
-          + "' is not supported. Namespace is required to start with '"
-          + SUPPORTED_NAMESPACE_PREFIX + "'.");
-    }
+    this.reader = useDomParser ? new JdomAliasReader(source)
+        : new StaxAliasReader(source);
   }
 
   // ****************************** Inner Classes *****************************
@@ -102,125 +113,206 @@ public final class AliasesProcessor {
 
   // --- get&set --------------------------------------------------------------
 
-  // --- business -------------------------------------------------------------
-
   /**
-   * Applies the alias information from the XML file to the given
-   * {@code builders}.
+   * Sets whether the comments of extensions, groups and aliases are to be read.
+   * Comments are serialized as XML, collectors that do not use them should
+   * skip them. Must be set before the document is read.
    *
-   * @param builders the builders to create alias scripts.
+   * @param readComments <code>true</code> to read comments (the default),
+   *        <code>false</code> to set all comments to <code>null</code>.
    */
-  public void process(final AliasCollector... builders) {
-    final Element root = doc.getRootElement();
-
-    for (final Element extensionElement : root.getChildren("extension",
-        nsAlias)) {
-      final AliasExtension extension = createExtension(extensionElement);
-      final ExtensionGroup extensionGroup = new ExtensionGroup(extension);
-      extensionGroups.add(extensionGroup);
-    }
+  public void setReadComments(final boolean readComments) {
+    this.readComments = readComments;
+  }
 
-    for (final Element groupElement : root.getChildren("group", nsAlias)) {
-      final Attribute groupName = groupElement.getAttribute("name");
-      final String comment = readComment(groupElement);
-      final AliasGroup group = new AliasGroup(groupName.getValue(), comment);
-      for (final Element aliasElement : groupElement.getChildren("alias",
-          nsAlias)) {
-        final Alias alias = createAlias(aliasElement);
-        for (final ExtensionGroup extensionGroup : extensionGroups) {
-          extensionGroup.addAlias(group.getName(), alias);
-        }
-        group.addAlias(alias);
-      }
+  // --- business -------------------------------------------------------------
 
-      for (final AliasCollector builder : builders) {
-        builder.addAliases(group);
-      }
+  /**
+   * Determines the maximum lengths of alias names without processing the alias
+   * information. The document is read as a stream of StAX events and only
+   * names and environments of aliases are considered.
+   *
+   * @param source the source to read the alias XML document from.
+   * @return the maximum lengths of alias names per environment.
+   * @throws NullPointerException if {@code source} is <code>null</code>.
+   * @throws IOException if the XML document cannot be read.
+   * @throws JDOMException if the XML document cannot be parsed.
+   * @see StreamingAliasCollector
+   */
+  public static AliasNameLengths scanAliasNameLengths(final InputSource source)
+      throws NullPointerException, IOException, JDOMException {
+    if (source == null) {
+      throw new NullPointerException("'source' must not be 'null'.");
     }
 
-    for (final AliasCollector builder : builders) {
-      builder.setExtensionGroups(extensionGroups);
+    try {
+      return new StaxAliasReader(source).scanNameLengths();
+    } catch (final IllegalArgumentException e) {
+      throw new JDOMException(e.getMessage(), e.getCause());
     }
   }
 
-  private AliasExtension createExtension(final Element extensionElement) {
-    final AliasExtension.Builder builder = new AliasExtension.Builder();
+  /**
+   * Applies the alias information from the XML file to the given
+   * {@code builders}. The document is read only on the first call, later calls
+   * apply the same {@link #readModel() model}.
+   *
+   * @param builders the builders to create alias scripts.
+   * @throws IllegalArgumentException if the XML document cannot be read or
+   *         contains invalid alias information.
+   * @throws IllegalStateException if the XML document has already been
+   *         {@link #stream(AliasCollector...) streamed}.
+   */
+  public void process(final AliasCollector... builders)
+      throws IllegalArgumentException, IllegalStateException {
+    readModel().apply(builders);
+  }
 
-    final Attribute env = extensionElement.getAttribute("env");
-    if (env != null) {
-      builder.withEnv(env.getValue());
+  /**
+   * Reads the alias information from the XML file into a model that can be
+   * applied to collectors later. Extensions are expanded once. The document is
+   * only read on the first call and released afterwards.
+   *
+   * @return the model of the alias information.
+   * @throws IllegalArgumentException if the XML document cannot be read or
+   *         contains invalid alias information.
+   * @throws IllegalStateException if the XML document has already been
+   *         {@link #stream(AliasCollector...) streamed}.
+   */
+  public AliasModel readModel()
+      throws IllegalArgumentException, IllegalStateException {
+    if (model == null) {
+      final AliasModel.Recorder recorder =
+          new AliasModel.Recorder(readComments);
+      read(recorder);
+      model = recorder.build();
     }
+    return model;
+  }
 
-    final String name = extensionElement.getChildTextNormalize("name", nsAlias);
-    final String template =
-        extensionElement.getChildTextNormalize("template", nsAlias);
-    final String comment = readComment(extensionElement);
-
-    final Element commentElement =
-        extensionElement.getChild("comment", nsAlias);
-    if (commentElement != null) {
-      final String mnemonic = commentElement.getAttributeValue("mnemonic");
-      builder.withMnemonic(mnemonic);
+  /**
+   * Hands each group to the given {@code collectors} as soon as it has been
+   * read without keeping a model. If all collectors are
+   * {@link StreamingAliasCollector#isStreaming() streaming}, the aliases
+   * created by extensions are handed over group by group, too. In this case
+   * all extensions are required to precede the first group in the document,
+   * since the aliases of groups already handed over are not kept. The
+   * document can only be streamed once, unless the model has already been
+   * read.
+   *
+   * @param collectors the collectors to add the groups to.
+   * @throws IllegalArgumentException if the XML document cannot be read or
+   *         contains invalid alias information or if an extension follows a
+   *         group while streaming.
+   * @throws IllegalStateException if the XML document has already been
+   *         streamed.
+   */
+  public void stream(final AliasCollector... collectors)
+      throws IllegalArgumentException, IllegalStateException {
+    if (model != null) {
+      model.apply(collectors);
+    } else {
+      read(collectors);
     }
-
-    builder.withName(name).withTemplate(template).withComment(comment);
-
-    appendApplyTos(extensionElement, builder);
-
-    return builder.build();
   }
 
-  private void appendApplyTos(final Element extensionElement,
-      final AliasExtension.Builder builder) {
-    final Element applyToElement =
-        extensionElement.getChild("apply-to", nsAlias);
-    if (applyToElement != null) {
-      for (final Element groupElement : applyToElement.getChildren("group",
-          nsAlias)) {
-        final String group = groupElement.getTextNormalize();
-        builder.addGroup(group);
-      }
-
-      for (final Element aliasElement : applyToElement.getChildren("alias",
-          nsAlias)) {
-        final String alias = aliasElement.getTextNormalize();
-        builder.addAlias(alias);
+  private static boolean isStreaming(final AliasCollector... collectors) {
+    for (final AliasCollector collector : collectors) {
+      if (!(collector instanceof StreamingAliasCollector)
+          || !((StreamingAliasCollector) collector).isStreaming()) {
+        return false;
       }
     }
+    return collectors.length > 0;
   }
 
-  private Alias createAlias(final Element aliasElement) {
-    final Alias.Builder builder = new Alias.Builder();
-    final Attribute env = aliasElement.getAttribute("env");
-    final Element command = aliasElement.getChild("command", nsAlias);
-    final String normalizedCommandText = command.getTextNormalize();
-    builder.withName(aliasElement.getChildTextNormalize("name", nsAlias))
-        .withCommand(normalizedCommandText);
+  private void read(final AliasCollector... collectors)
+      throws IllegalArgumentException, IllegalStateException {
+    if (reader == null) {
+      throw new IllegalStateException(
+          "The alias XML document has already been streamed.");
+    }
 
-    final String comment = readComment(aliasElement);
-    builder.withComment(comment);
+    final List<ExtensionGroup> extensionGroups =
+        new ArrayList<ExtensionGroup>();
+    final ExtensionIndex extensionIndex = new ExtensionIndex();
+    final boolean streaming = isStreaming(collectors);
+    final AliasReader currentReader = reader;
+    reader = null;
+    currentReader.read(new AliasHandler() {
+      /**
+       * The groups handled so far. Only kept if not streaming to apply
+       * extensions that follow groups in the document.
+       */
+      private final List<AliasGroup> handledGroups =
+          new ArrayList<AliasGroup>();
+
+      /**
+       * The name of the first group handled or <code>null</code> if no group
+       * has been handled yet.
+       */
+      private String firstGroupName;
+
+      @Override
+      public void handleExtension(final AliasExtension extension) {
+        final ExtensionGroup extensionGroup = new ExtensionGroup(extension);
+        if (firstGroupName != null) {
+          if (streaming) {
+            throw new IllegalArgumentException("Extension '"
+                + extension.getName() + "' follows group '" + firstGroupName
+                + "'. Extensions are required to precede all groups to be"
+                + " streamed.");
+          }
+          for (final AliasGroup group : handledGroups) {
+            for (final Alias alias : group.getAliases()) {
+              extensionGroup.addAlias(group.getName(), alias);
+            }
+          }
+        }
+        extensionGroups.add(extensionGroup);
+        extensionIndex.add(extensionGroup);
+      }
 
-    if (env != null) {
-      builder.withEnv(env.getValue());
-    }
-    final Attribute args = command.getAttribute("passArgs");
-    if (args != null && !Boolean.parseBoolean(args.getValue())) {
-      builder.withPassArgs(false);
-    }
+      @Override
+      public void handleGroup(final AliasGroup group) {
+        final AliasGroup frozenGroup = group.freeze();
+        if (firstGroupName == null) {
+          firstGroupName = frozenGroup.getName();
+        }
+        if (!streaming) {
+          handledGroups.add(frozenGroup);
+        }
+        final String groupName = frozenGroup.getName();
+        for (final Alias alias : frozenGroup.getAliases()) {
+          extensionIndex.extend(groupName, alias);
+        }
 
-    return builder.build();
-  }
+        for (final AliasCollector collector : collectors) {
+          collector.addAliases(frozenGroup);
+        }
+        if (streaming) {
+          handOverExtendedAliases();
+        }
+      }
 
-  private String readComment(final Element root) {
-    final Element commentElement = root.getChild("comment", nsAlias);
-    if (commentElement != null) {
-      final XMLOutputter xout = new XMLOutputter();
-      final String comment = xout.outputElementContentString(commentElement);
-      if (StringUtils.isNotBlank(comment)) {
-        return comment;
+      private void handOverExtendedAliases() {
+        for (final ExtensionGroup extensionGroup : extensionGroups) {
+          if (!extensionGroup.isEmpty()) {
+            final ExtensionGroup extendedAliases = extensionGroup.drain();
+            for (final AliasCollector collector : collectors) {
+              ((StreamingAliasCollector) collector)
+                  .addExtendedAliases(extendedAliases);
+            }
+          }
+        }
       }
+    }, readComments);
+
+    final List<ExtensionGroup> frozenExtensionGroups =
+        AliasModel.freeze(extensionGroups);
+    for (final AliasCollector collector : collectors) {
+      collector.setExtensionGroups(frozenExtensionGroups);
     }
-    return null;
   }
 
   // --- object basics --------------------------------------------------------
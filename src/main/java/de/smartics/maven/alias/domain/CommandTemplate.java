@@ -0,0 +1,192 @@
+/*
+ * Copyright 2012-2024 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.smartics.maven.alias.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A command or template parsed into literal and placeholder segments. The text
+ * is scanned once on compilation, rendering appends the segments and the
+ * values of the placeholders to the output without creating intermediate
+ * strings.
+ * <p>
+ * Placeholders start with {@link #PLACEHOLDER_PREFIX}. Sequences starting with
+ * the prefix that do not match one of the placeholders are kept as literal
+ * text.
+ * </p>
+ */
+public final class CommandTemplate {
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  /**
+   * The prefix every placeholder has to start with.
+   * <p>
+   * The value of this constant is {@value}.
+   * </p>
+   */
+  public static final String PLACEHOLDER_PREFIX = "{@";
+
+  // --- members --------------------------------------------------------------
+
+  /**
+   * The text the template has been compiled from.
+   */
+  private final String text;
+
+  /**
+   * The literal segments. There is always one more literal than slots, empty
+   * literals included.
+   */
+  private final String[] literals;
+
+  /**
+   * The indices of the placeholder (and therefore of the value) to render
+   * after the literal with the same index.
+   */
+  private final int[] slots;
+
+  // ****************************** Initializer *******************************
+
+  // ****************************** Constructors ******************************
+
+  private CommandTemplate(final String text, final String[] literals,
+      final int[] slots) {
+    this.text = text;
+    this.literals = literals;
+    this.slots = slots;
+  }
+
+  // ****************************** Inner Classes *****************************
+
+  // ********************************* Methods ********************************
+
+  // --- init -----------------------------------------------------------------
+
+  /**
+   * Parses the text into literal and placeholder segments.
+   *
+   * @param text the text to compile.
+   * @param placeholders the placeholders to recognize. The index of a
+   *        placeholder is the index of its value passed to
+   *        {@link #render(StringBuilder, CharSequence...)}.
+   * @return the compiled template.
+   * @throws NullPointerException if {@code text} or {@code placeholders} is
+   *         <code>null</code>.
+   * @throws IllegalArgumentException if a placeholder does not start with
+   *         {@link #PLACEHOLDER_PREFIX}.
+   */
+  public static CommandTemplate compile(final String text,
+      final String... placeholders)
+      throws NullPointerException, IllegalArgumentException {
+    if (text == null) {
+      throw new NullPointerException("'text' must not be 'null'.");
+    }
+    for (final String placeholder : placeholders) {
+      if (!placeholder.startsWith(PLACEHOLDER_PREFIX)) {
+        throw new IllegalArgumentException("Placeholder '" + placeholder
+            + "' does not start with '" + PLACEHOLDER_PREFIX + "'.");
+      }
+    }
+
+    final List<String> literals = new ArrayList<String>();
+    final List<Integer> slots = new ArrayList<Integer>();
+    int start = 0;
+    int pos = text.indexOf(PLACEHOLDER_PREFIX);
+    while (pos >= 0) {
+      final int index = matchPlaceholder(text, pos, placeholders);
+      if (index >= 0) {
+        literals.add(text.substring(start, pos));
+        slots.add(index);
+        start = pos + placeholders[index].length();
+        pos = text.indexOf(PLACEHOLDER_PREFIX, start);
+      } else {
+        pos = text.indexOf(PLACEHOLDER_PREFIX, pos + 1);
+      }
+    }
+    literals.add(text.substring(start));
+
+    final int[] slotArray = new int[slots.size()];
+    for (int i = 0; i < slotArray.length; i++) {
+      slotArray[i] = slots.get(i);
+    }
+    return new CommandTemplate(text,
+        literals.toArray(new String[literals.size()]), slotArray);
+  }
+
+  private static int matchPlaceholder(final String text, final int pos,
+      final String[] placeholders) {
+    for (int i = 0; i < placeholders.length; i++) {
+      final String placeholder = placeholders[i];
+      if (text.startsWith(placeholder, pos)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  // --- get&set --------------------------------------------------------------
+
+  /**
+   * Returns the text the template has been compiled from.
+   *
+   * @return the text the template has been compiled from.
+   */
+  public String getText() {
+    return text;
+  }
+
+  /**
+   * Checks whether the template contains at least one placeholder.
+   *
+   * @return <code>true</code> if at least one placeholder has been found,
+   *         <code>false</code> if the template is a literal.
+   */
+  public boolean hasPlaceholders() {
+    return slots.length > 0;
+  }
+
+  // --- business -------------------------------------------------------------
+
+  /**
+   * Appends the template to the output with each placeholder replaced by its
+   * value.
+   *
+   * @param out the output to append to.
+   * @param values the values of the placeholders in the order the placeholders
+   *        have been passed to {@link #compile(String, String...)}.
+   */
+  public void render(final StringBuilder out, final CharSequence... values) {
+    out.append(literals[0]);
+    for (int i = 0; i < slots.length; i++) {
+      out.append(values[slots[i]]).append(literals[i + 1]);
+    }
+  }
+
+  // --- object basics --------------------------------------------------------
+
+  /**
+   * Returns the text the template has been compiled from.
+   *
+   * @return the text the template has been compiled from.
+   */
+  @Override
+  public String toString() {
+    return text;
+  }
+}
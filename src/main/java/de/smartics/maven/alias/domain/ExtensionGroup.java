@@ -16,10 +16,16 @@
 package de.smartics.maven.alias.domain;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
  * A group of extended aliases.
+ * <p>
+ * Extended aliases are added while the alias groups are read. A
+ * {@link #freeze() frozen} group is immutable and may be shared between
+ * threads.
+ * </p>
  */
 public final class ExtensionGroup {
   // ********************************* Fields *********************************
@@ -36,7 +42,12 @@ public final class ExtensionGroup {
   /**
    * The list of extended aliases.
    */
-  private final List<Alias> aliases = new ArrayList<Alias>();
+  private final List<Alias> aliases;
+
+  /**
+   * The flag signals that the group is immutable.
+   */
+  private final boolean frozen;
 
   // ****************************** Initializer *******************************
 
@@ -50,10 +61,17 @@ public final class ExtensionGroup {
    */
   public ExtensionGroup(final AliasExtension extension)
       throws NullPointerException {
+    this(extension, new ArrayList<Alias>(), false);
+  }
+
+  private ExtensionGroup(final AliasExtension extension,
+      final List<Alias> aliases, final boolean frozen) {
     if (extension == null) {
       throw new NullPointerException("'extension' must not be 'null'.");
     }
     this.extension = extension;
+    this.aliases = aliases;
+    this.frozen = frozen;
   }
 
   // ****************************** Inner Classes *****************************
@@ -67,10 +85,20 @@ public final class ExtensionGroup {
   /**
    * Returns the list of extended aliases.
    *
-   * @return the list of extended aliases.
+   * @return the unmodifiable list of extended aliases.
    */
   public List<Alias> getAliases() {
-    return aliases;
+    return frozen ? aliases : Collections.unmodifiableList(aliases);
+  }
+
+  /**
+   * Checks whether or not this group is immutable.
+   *
+   * @return <code>true</code> if aliases cannot be added to this group,
+   *         <code>false</code> otherwise.
+   */
+  public boolean isFrozen() {
+    return frozen;
   }
 
   /**
@@ -101,14 +129,71 @@ public final class ExtensionGroup {
    * @param group the name of the group the alias belongs to (may be
    *        <code>null</code>).
    * @param alias the alias to check for applicability.
+   * @throws IllegalStateException if this group is frozen.
    */
-  public void addAlias(final String group, final Alias alias) {
+  public void addAlias(final String group, final Alias alias)
+      throws IllegalStateException {
     if (extension.isApplicable(group, alias)) {
-      final Alias extendedAlias = extension.apply(group, alias);
-      aliases.add(extendedAlias);
+      addApplicableAlias(alias);
     }
   }
 
+  /**
+   * Adds the extended version of the given alias without checking the
+   * applicability of the extension.
+   *
+   * @param alias the alias the extension is known to apply to.
+   * @throws IllegalStateException if this group is frozen.
+   */
+  void addApplicableAlias(final Alias alias) throws IllegalStateException {
+    addExtendedAlias(extension.extend(alias));
+  }
+
+  /**
+   * Adds an alias that has already been extended.
+   *
+   * @param alias the extended alias.
+   * @throws IllegalStateException if this group is frozen.
+   */
+  void addExtendedAlias(final Alias alias) throws IllegalStateException {
+    if (frozen) {
+      throw new IllegalStateException("Cannot add alias to frozen extension"
+          + " group '" + extension.getName() + "'.");
+    }
+    aliases.add(alias);
+  }
+
+  /**
+   * Returns an immutable copy of this group and removes the aliases from this
+   * group. Used to hand over the extended aliases in portions while streaming.
+   *
+   * @return an immutable copy of this group.
+   * @throws IllegalStateException if this group is frozen.
+   */
+  ExtensionGroup drain() throws IllegalStateException {
+    final ExtensionGroup copy = freeze();
+    if (copy == this) {
+      throw new IllegalStateException("Cannot remove aliases from frozen"
+          + " extension group '" + extension.getName() + "'.");
+    }
+    aliases.clear();
+    return copy;
+  }
+
+  /**
+   * Returns an immutable copy of this group.
+   *
+   * @return this group if it is already frozen, an immutable copy otherwise.
+   */
+  public ExtensionGroup freeze() {
+    if (frozen) {
+      return this;
+    }
+
+    return new ExtensionGroup(extension,
+        Collections.unmodifiableList(new ArrayList<Alias>(aliases)), true);
+  }
+
   // --- object basics --------------------------------------------------------
 
 }
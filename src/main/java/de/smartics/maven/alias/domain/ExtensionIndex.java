@@ -0,0 +1,122 @@
+/*
+ * Copyright 2012-2024 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.smartics.maven.alias.domain;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps group and alias names to the extension groups whose extensions apply to
+ * them. Matching an alias requires two hash lookups regardless of the number
+ * of extensions.
+ */
+final class ExtensionIndex {
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  // --- members --------------------------------------------------------------
+
+  /**
+   * The extension groups by the names of the alias groups they apply to.
+   */
+  private final Map<String, List<ExtensionGroup>> byGroup =
+      new HashMap<String, List<ExtensionGroup>>();
+
+  /**
+   * The extension groups by the names of the aliases they apply to.
+   */
+  private final Map<String, List<ExtensionGroup>> byAlias =
+      new HashMap<String, List<ExtensionGroup>>();
+
+  // ****************************** Initializer *******************************
+
+  // ****************************** Constructors ******************************
+
+  /**
+   * Default constructor.
+   */
+  ExtensionIndex() {}
+
+  // ****************************** Inner Classes *****************************
+
+  // ********************************* Methods ********************************
+
+  // --- init -----------------------------------------------------------------
+
+  // --- get&set --------------------------------------------------------------
+
+  // --- business -------------------------------------------------------------
+
+  /**
+   * Adds the extension group to the index.
+   *
+   * @param extensionGroup the extension group to add.
+   */
+  void add(final ExtensionGroup extensionGroup) {
+    final AliasExtension extension = extensionGroup.getExtension();
+    for (final String group : extension.getApplyToGroups()) {
+      register(byGroup, group, extensionGroup);
+    }
+    for (final String alias : extension.getApplyToAliases()) {
+      register(byAlias, alias, extensionGroup);
+    }
+  }
+
+  private static void register(final Map<String, List<ExtensionGroup>> index,
+      final String key, final ExtensionGroup extensionGroup) {
+    List<ExtensionGroup> extensionGroups = index.get(key);
+    if (extensionGroups == null) {
+      extensionGroups = new ArrayList<ExtensionGroup>(2);
+      index.put(key, extensionGroups);
+    }
+    if (!extensionGroups.contains(extensionGroup)) {
+      extensionGroups.add(extensionGroup);
+    }
+  }
+
+  /**
+   * Adds the extended versions of the given alias to all extension groups whose
+   * extensions apply to the alias. Each extension is applied at most once.
+   *
+   * @param group the name of the group the alias belongs to (may be
+   *        <code>null</code>).
+   * @param alias the alias to extend.
+   */
+  void extend(final String group, final Alias alias) {
+    final List<ExtensionGroup> groupMatches =
+        group != null ? byGroup.get(group) : null;
+    if (groupMatches != null) {
+      for (final ExtensionGroup extensionGroup : groupMatches) {
+        extensionGroup.addApplicableAlias(alias);
+      }
+    }
+
+    final List<ExtensionGroup> aliasMatches = byAlias.get(alias.getName());
+    if (aliasMatches != null) {
+      for (final ExtensionGroup extensionGroup : aliasMatches) {
+        if (groupMatches == null || !groupMatches.contains(extensionGroup)) {
+          extensionGroup.addApplicableAlias(alias);
+        }
+      }
+    }
+  }
+
+  // --- object basics --------------------------------------------------------
+
+}
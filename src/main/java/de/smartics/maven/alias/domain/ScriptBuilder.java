@@ -15,10 +15,17 @@
  */
 package de.smartics.maven.alias.domain;
 
+import java.io.IOException;
+
 /**
  * Provides an interface to create scripts for aliases.
+ * <p>
+ * The script is either created after all groups have been collected with
+ * {@link #createScript()} or written group by group while the aliases are
+ * processed (see {@link StreamingAliasCollector}).
+ * </p>
  */
-public interface ScriptBuilder extends AliasCollector {
+public interface ScriptBuilder extends StreamingAliasCollector {
   // ********************************* Fields *********************************
 
   // --- constants ------------------------------------------------------------
@@ -83,6 +90,16 @@ public interface ScriptBuilder extends AliasCollector {
    */
   String createScript();
 
+  /**
+   * Writes the script to the given output. In contrast to
+   * {@link #createScript()} the script is not rendered to a string as a whole,
+   * but written in chunks.
+   *
+   * @param out the output to write to.
+   * @throws IOException if the script cannot be written.
+   */
+  void writeScript(Appendable out) throws IOException;
+
   // --- object basics --------------------------------------------------------
 
 }
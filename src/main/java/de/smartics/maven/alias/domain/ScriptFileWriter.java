@@ -0,0 +1,76 @@
+/*
+ * Copyright 2012-2024 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.smartics.maven.alias.domain;
+
+import java.io.IOException;
+
+/**
+ * Writes files that accompany a script, for instance files the script loads on
+ * demand.
+ */
+public interface ScriptFileWriter {
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  // ****************************** Initializer *******************************
+
+  // ****************************** Inner Classes *****************************
+
+  /**
+   * The content of a file that is written in portions, so that it does not
+   * have to be held in memory as a whole.
+   */
+  interface Content {
+    /**
+     * Writes the content to the given output.
+     *
+     * @param out the output to write to.
+     * @throws IOException if the content cannot be read or written.
+     */
+    void writeTo(Appendable out) throws IOException;
+  }
+
+  // ********************************* Methods ********************************
+
+  // --- get&set --------------------------------------------------------------
+
+  // --- business -------------------------------------------------------------
+
+  /**
+   * Writes a file to the folder of the script.
+   *
+   * @param path the path of the file relative to the folder of the script.
+   *        Folders are separated by <code>/</code> and created if missing.
+   * @param content the content of the file.
+   * @throws IOException if the file cannot be written.
+   */
+  void write(String path, CharSequence content) throws IOException;
+
+  /**
+   * Writes a file to the folder of the script from content provided in
+   * portions.
+   *
+   * @param path the path of the file relative to the folder of the script.
+   *        Folders are separated by <code>/</code> and created if missing.
+   * @param content the content of the file.
+   * @throws IOException if the file cannot be written.
+   */
+  void write(String path, Content content) throws IOException;
+
+  // --- object basics --------------------------------------------------------
+
+}
@@ -0,0 +1,676 @@
+/*
+ * Copyright 2012-2024 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.smartics.maven.alias.domain;
+
+import org.apache.commons.io.IOUtils;
+import org.codehaus.plexus.util.StringUtils;
+import org.jdom2.JDOMException;
+import org.jdom2.Text;
+import org.xml.sax.InputSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Reads an alias XML document from a stream of StAX events. No document
+ * object model is created; the domain objects are created directly from the
+ * events. The document can therefore only be read once.
+ * <p>
+ * Extensions and groups are reported in document order. Unlike the
+ * {@link JdomAliasReader}, extensions following a group are reported after
+ * that group.
+ * </p>
+ */
+final class StaxAliasReader implements AliasReader {
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  /**
+   * The property of the JDK's StAX implementation to report CDATA sections as
+   * such instead of reporting them as characters.
+   * <p>
+   * The value of this constant is {@value}.
+   * </p>
+   */
+  private static final String REPORT_CDATA_EVENT =
+      "http://java.sun.com/xml/stream/properties/report-cdata-event";
+
+  /**
+   * The line separator used to serialize comments. Matches the raw format of
+   * the JDOM outputter.
+   * <p>
+   * The value of this constant is {@value}.
+   * </p>
+   */
+  private static final String LINE_SEPARATOR = "\r\n";
+
+  /**
+   * The factory to create stream readers. Thread-safe after configuration.
+   */
+  private static final XMLInputFactory FACTORY = createFactory();
+
+  // --- members --------------------------------------------------------------
+
+  /**
+   * The identifier of the source for error messages.
+   */
+  private final String systemId;
+
+  /**
+   * The stream to close after reading. May be <code>null</code> if the reader
+   * reads from a character stream.
+   */
+  private final InputStream in;
+
+  /**
+   * The character stream to close after reading. May be <code>null</code> if
+   * the reader reads from a byte stream.
+   */
+  private final Reader characterStream;
+
+  /**
+   * The reader positioned at the start of the root element until the document
+   * is read.
+   */
+  private final XMLStreamReader reader;
+
+  /**
+   * The alias namespace.
+   */
+  private final String nsAlias;
+
+  /**
+   * The flag signals that the document has already been read.
+   */
+  private boolean consumed;
+
+  /**
+   * The flag signals that comments are to be serialized. If
+   * <code>false</code> comment elements are skipped.
+   */
+  private boolean readComments;
+
+  // ****************************** Initializer *******************************
+
+  // ****************************** Constructors ******************************
+
+  /**
+   * Default constructor.
+   *
+   * @param source the source to read the alias XML document from.
+   * @throws IOException if the XML document cannot be read.
+   * @throws JDOMException if the root element of the XML document cannot be
+   *         parsed or is not in a supported namespace.
+   */
+  StaxAliasReader(final InputSource source) throws IOException, JDOMException {
+    this.systemId = source.getSystemId();
+    if (source.getCharacterStream() != null) {
+      this.characterStream = source.getCharacterStream();
+      this.in = null;
+    } else if (source.getByteStream() != null) {
+      this.characterStream = null;
+      this.in = source.getByteStream();
+    } else if (systemId != null) {
+      this.characterStream = null;
+      this.in = new URL(systemId).openStream();
+    } else {
+      throw new IOException(
+          "Source provides neither a stream nor a system ID.");
+    }
+
+    try {
+      this.reader = createReader(source);
+      reader.nextTag();
+    } catch (final XMLStreamException e) {
+      close();
+      throw new JDOMException(
+          "Cannot parse alias XML from '" + systemId + "'.", e);
+    }
+
+    final String uri = reader.getNamespaceURI();
+    this.nsAlias = uri != null ? uri : "";
+    if (!nsAlias.startsWith(SUPPORTED_NAMESPACE_PREFIX)) {
+      close();
+      throw new JDOMException("The namespace '" + nsAlias
+          + "' is not supported. Namespace is required to start with '"
+          + SUPPORTED_NAMESPACE_PREFIX + "'.");
+    }
+  }
+
+  // ****************************** Inner Classes *****************************
+
+  // ********************************* Methods ********************************
+
+  // --- init -----------------------------------------------------------------
+
+  private static XMLInputFactory createFactory() {
+    final XMLInputFactory factory = XMLInputFactory.newInstance();
+    factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.TRUE);
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES,
+        Boolean.FALSE);
+    if (factory.isPropertySupported(REPORT_CDATA_EVENT)) {
+      factory.setProperty(REPORT_CDATA_EVENT, Boolean.TRUE);
+    }
+    return factory;
+  }
+
+  private XMLStreamReader createReader(final InputSource source)
+      throws XMLStreamException {
+    if (characterStream != null) {
+      return FACTORY.createXMLStreamReader(systemId, characterStream);
+    }
+
+    final String encoding = source.getEncoding();
+    if (encoding != null) {
+      return FACTORY.createXMLStreamReader(in, encoding);
+    }
+    return FACTORY.createXMLStreamReader(systemId, in);
+  }
+
+  // --- get&set --------------------------------------------------------------
+
+  // --- business -------------------------------------------------------------
+
+  @Override
+  public void read(final AliasHandler handler, final boolean readComments)
+      throws IllegalArgumentException, IllegalStateException {
+    consume();
+    this.readComments = readComments;
+
+    try {
+      while (nextChildElement()) {
+        if (isAliasElement("extension")) {
+          handler.handleExtension(readExtension());
+        } else if (isAliasElement("group")) {
+          handler.handleGroup(readGroup());
+        } else {
+          skipElement();
+        }
+      }
+    } catch (final XMLStreamException e) {
+      throw new IllegalArgumentException(
+          "Cannot read alias XML from '" + systemId + "'.", e);
+    } finally {
+      close();
+    }
+  }
+
+  /**
+   * Reads only the names and environments of all aliases of all groups.
+   *
+   * @return the maximum lengths of alias names per environment.
+   * @throws IllegalArgumentException if the document cannot be read.
+   * @throws IllegalStateException if the document has already been read.
+   */
+  AliasNameLengths scanNameLengths()
+      throws IllegalArgumentException, IllegalStateException {
+    consume();
+
+    final AliasNameLengths lengths = new AliasNameLengths();
+    try {
+      while (nextChildElement()) {
+        if (isAliasElement("group")) {
+          scanGroup(lengths);
+        } else {
+          skipElement();
+        }
+      }
+    } catch (final XMLStreamException e) {
+      throw new IllegalArgumentException(
+          "Cannot read alias XML from '" + systemId + "'.", e);
+    } finally {
+      close();
+    }
+    return lengths;
+  }
+
+  private void consume() throws IllegalStateException {
+    if (consumed) {
+      throw new IllegalStateException(
+          "Alias XML from '" + systemId + "' has already been read.");
+    }
+    consumed = true;
+  }
+
+  private void scanGroup(final AliasNameLengths lengths)
+      throws XMLStreamException {
+    while (nextChildElement()) {
+      if (isAliasElement("alias")) {
+        final String env = reader.getAttributeValue(null, "env");
+        String name = null;
+        while (nextChildElement()) {
+          if (name == null && isAliasElement("name")) {
+            name = readTextNormalize();
+          } else {
+            skipElement();
+          }
+        }
+        lengths.add(env, name);
+      } else {
+        skipElement();
+      }
+    }
+  }
+
+  private AliasExtension readExtension() throws XMLStreamException {
+    final AliasExtension.Builder builder = new AliasExtension.Builder();
+
+    final String env = reader.getAttributeValue(null, "env");
+    if (env != null) {
+      builder.withEnv(env);
+    }
+
+    String name = null;
+    String template = null;
+    String comment = null;
+    while (nextChildElement()) {
+      if (name == null && isAliasElement("name")) {
+        name = readTextNormalize();
+      } else if (template == null && isAliasElement("template")) {
+        template = readTextNormalize();
+      } else if (isAliasElement("comment")) {
+        builder.withMnemonic(reader.getAttributeValue(null, "mnemonic"));
+        comment = readComment();
+      } else if (isAliasElement("apply-to")) {
+        appendApplyTos(builder);
+      } else {
+        skipElement();
+      }
+    }
+
+    builder.withName(name).withTemplate(template).withComment(comment);
+    return builder.build();
+  }
+
+  private void appendApplyTos(final AliasExtension.Builder builder)
+      throws XMLStreamException {
+    while (nextChildElement()) {
+      if (isAliasElement("group")) {
+        builder.addGroup(readTextNormalize());
+      } else if (isAliasElement("alias")) {
+        builder.addAlias(readTextNormalize());
+      } else {
+        skipElement();
+      }
+    }
+  }
+
+  private AliasGroup readGroup() throws XMLStreamException {
+    final String name = reader.getAttributeValue(null, "name");
+    final List<Alias> aliases = new ArrayList<Alias>();
+    String comment = null;
+    while (nextChildElement()) {
+      if (isAliasElement("alias")) {
+        aliases.add(readAlias());
+      } else if (comment == null && isAliasElement("comment")) {
+        comment = readComment();
+      } else {
+        skipElement();
+      }
+    }
+
+    final AliasGroup group = new AliasGroup(name, comment);
+    for (final Alias alias : aliases) {
+      group.addAlias(alias);
+    }
+    return group;
+  }
+
+  private Alias readAlias() throws XMLStreamException {
+    final Alias.Builder builder = new Alias.Builder();
+
+    final String env = reader.getAttributeValue(null, "env");
+    if (env != null) {
+      builder.withEnv(env);
+    }
+
+    boolean nameRead = false;
+    boolean commandRead = false;
+    boolean commentRead = false;
+    while (nextChildElement()) {
+      if (!nameRead && isAliasElement("name")) {
+        builder.withName(readTextNormalize());
+        nameRead = true;
+      } else if (!commandRead && isAliasElement("command")) {
+        final String args = reader.getAttributeValue(null, "passArgs");
+        if (args != null && !Boolean.parseBoolean(args)) {
+          builder.withPassArgs(false);
+        }
+        builder.withCommand(readTextNormalize());
+        commandRead = true;
+      } else if (!commentRead && isAliasElement("comment")) {
+        builder.withComment(readComment());
+        commentRead = true;
+      } else {
+        skipElement();
+      }
+    }
+
+    return builder.build();
+  }
+
+  // ... navigation ...........................................................
+
+  private boolean isAliasElement(final String localName) {
+    return localName.equals(reader.getLocalName())
+        && nsAlias.equals(reader.getNamespaceURI());
+  }
+
+  /**
+   * Moves to the start of the next child element of the current element.
+   *
+   * @return <code>true</code> if the reader is positioned at the start of a
+   *         child element, <code>false</code> if the reader is positioned at
+   *         the end of the parent element.
+   * @throws XMLStreamException on any parse problem.
+   */
+  private boolean nextChildElement() throws XMLStreamException {
+    while (reader.hasNext()) {
+      final int event = reader.next();
+      if (event == XMLStreamConstants.START_ELEMENT) {
+        return true;
+      } else if (event == XMLStreamConstants.END_ELEMENT) {
+        return false;
+      }
+    }
+    return false;
+  }
+
+  private void skipElement() throws XMLStreamException {
+    int depth = 1;
+    while (depth > 0) {
+      final int event = reader.next();
+      if (event == XMLStreamConstants.START_ELEMENT) {
+        depth++;
+      } else if (event == XMLStreamConstants.END_ELEMENT) {
+        depth--;
+      }
+    }
+  }
+
+  /**
+   * Reads the text directly contained in the current element and normalizes
+   * its white spaces. Text of nested elements is ignored.
+   *
+   * @return the normalized text.
+   * @throws XMLStreamException on any parse problem.
+   */
+  private String readTextNormalize() throws XMLStreamException {
+    final StringBuilder buffer = new StringBuilder(64);
+    int depth = 1;
+    while (depth > 0) {
+      final int event = reader.next();
+      switch (event) {
+        case XMLStreamConstants.START_ELEMENT:
+          depth++;
+          break;
+        case XMLStreamConstants.END_ELEMENT:
+          depth--;
+          break;
+        case XMLStreamConstants.CHARACTERS:
+        case XMLStreamConstants.CDATA:
+        case XMLStreamConstants.SPACE:
+          if (depth == 1) {
+            buffer.append(reader.getTextCharacters(), reader.getTextStart(),
+                reader.getTextLength());
+          }
+          break;
+        default:
+          break;
+      }
+    }
+    return Text.normalizeString(buffer.toString());
+  }
+
+  // ... comments .............................................................
+
+  /**
+   * Serializes the content of the current element as XML in the same way the
+   * JDOM outputter does with its raw format. If comments are not requested,
+   * the element is skipped.
+   *
+   * @return the serialized content or <code>null</code> if the content is
+   *         blank or comments are not requested.
+   * @throws XMLStreamException on any parse problem.
+   */
+  private String readComment() throws XMLStreamException {
+    if (!readComments) {
+      skipElement();
+      return null;
+    }
+
+    final StringBuilder buffer = new StringBuilder(256);
+    final List<String[]> scope = new ArrayList<String[]>();
+    final List<Integer> scopeSizes = new ArrayList<Integer>();
+    boolean startTagOpen = false;
+    int depth = 1;
+    while (depth > 0) {
+      final int event = reader.next();
+      if (startTagOpen && event != XMLStreamConstants.END_ELEMENT) {
+        buffer.append('>');
+        startTagOpen = false;
+      }
+
+      switch (event) {
+        case XMLStreamConstants.START_ELEMENT:
+          depth++;
+          scopeSizes.add(scope.size());
+          appendStartTag(buffer, scope);
+          startTagOpen = true;
+          break;
+        case XMLStreamConstants.END_ELEMENT:
+          depth--;
+          if (depth > 0) {
+            if (startTagOpen) {
+              buffer.append(" />");
+              startTagOpen = false;
+            } else {
+              buffer.append("</").append(qualifiedName(reader.getPrefix(),
+                  reader.getLocalName())).append('>');
+            }
+            final int size = scopeSizes.remove(scopeSizes.size() - 1);
+            while (scope.size() > size) {
+              scope.remove(scope.size() - 1);
+            }
+          }
+          break;
+        case XMLStreamConstants.CHARACTERS:
+        case XMLStreamConstants.SPACE:
+          appendEscapedText(buffer, reader.getText());
+          break;
+        case XMLStreamConstants.CDATA:
+          buffer.append("<![CDATA[").append(reader.getText()).append("]]>");
+          break;
+        case XMLStreamConstants.COMMENT:
+          buffer.append("<!--").append(reader.getText()).append("-->");
+          break;
+        case XMLStreamConstants.PROCESSING_INSTRUCTION:
+          buffer.append("<?").append(reader.getPITarget());
+          final String data = reader.getPIData();
+          if (StringUtils.isNotEmpty(data)) {
+            buffer.append(' ').append(data);
+          }
+          buffer.append("?>");
+          break;
+        default:
+          break;
+      }
+    }
+
+    final String comment = buffer.toString();
+    return StringUtils.isNotBlank(comment) ? comment : null;
+  }
+
+  private void appendStartTag(final StringBuilder buffer,
+      final List<String[]> scope) {
+    final String prefix = prefix(reader.getPrefix());
+    buffer.append('<').append(qualifiedName(prefix, reader.getLocalName()));
+
+    final String uri = reader.getNamespaceURI();
+    appendNamespace(buffer, scope, prefix, uri != null ? uri : "");
+    for (int i = 0; i < reader.getNamespaceCount(); i++) {
+      final String nsUri = reader.getNamespaceURI(i);
+      appendNamespace(buffer, scope, prefix(reader.getNamespacePrefix(i)),
+          nsUri != null ? nsUri : "");
+    }
+
+    for (int i = 0; i < reader.getAttributeCount(); i++) {
+      final String attributePrefix = prefix(reader.getAttributePrefix(i));
+      if (attributePrefix.length() > 0) {
+        appendNamespace(buffer, scope, attributePrefix,
+            reader.getAttributeNamespace(i));
+      }
+    }
+
+    for (int i = 0; i < reader.getAttributeCount(); i++) {
+      buffer.append(' ')
+          .append(qualifiedName(reader.getAttributePrefix(i),
+              reader.getAttributeLocalName(i)))
+          .append("=\"");
+      appendEscapedAttribute(buffer, reader.getAttributeValue(i));
+      buffer.append('"');
+    }
+  }
+
+  private static void appendNamespace(final StringBuilder buffer,
+      final List<String[]> scope, final String prefix, final String uri) {
+    if (uri.equals(lookupNamespace(scope, prefix))) {
+      return;
+    }
+
+    scope.add(new String[] {prefix, uri});
+    buffer.append(" xmlns");
+    if (prefix.length() > 0) {
+      buffer.append(':').append(prefix);
+    }
+    buffer.append("=\"");
+    appendEscapedAttribute(buffer, uri);
+    buffer.append('"');
+  }
+
+  private static String lookupNamespace(final List<String[]> scope,
+      final String prefix) {
+    for (int i = scope.size() - 1; i >= 0; i--) {
+      final String[] declaration = scope.get(i);
+      if (declaration[0].equals(prefix)) {
+        return declaration[1];
+      }
+    }
+
+    if (prefix.length() == 0) {
+      return "";
+    } else if (XMLConstants.XML_NS_PREFIX.equals(prefix)) {
+      return XMLConstants.XML_NS_URI;
+    }
+    return null;
+  }
+
+  private static String prefix(final String prefix) {
+    return prefix != null ? prefix : "";
+  }
+
+  private static String qualifiedName(final String prefix,
+      final String localName) {
+    return StringUtils.isEmpty(prefix) ? localName : prefix + ':' + localName;
+  }
+
+  private static void appendEscapedText(final StringBuilder buffer,
+      final String text) {
+    for (int i = 0; i < text.length(); i++) {
+      final char c = text.charAt(i);
+      switch (c) {
+        case '&':
+          buffer.append("&amp;");
+          break;
+        case '<':
+          buffer.append("&lt;");
+          break;
+        case '>':
+          buffer.append("&gt;");
+          break;
+        case '\r':
+          buffer.append("&#xD;");
+          break;
+        case '\n':
+          buffer.append(LINE_SEPARATOR);
+          break;
+        default:
+          buffer.append(c);
+          break;
+      }
+    }
+  }
+
+  private static void appendEscapedAttribute(final StringBuilder buffer,
+      final String value) {
+    for (int i = 0; i < value.length(); i++) {
+      final char c = value.charAt(i);
+      switch (c) {
+        case '&':
+          buffer.append("&amp;");
+          break;
+        case '<':
+          buffer.append("&lt;");
+          break;
+        case '>':
+          buffer.append("&gt;");
+          break;
+        case '"':
+          buffer.append("&quot;");
+          break;
+        case '\t':
+          buffer.append("&#x9;");
+          break;
+        case '\n':
+          buffer.append("&#xA;");
+          break;
+        case '\r':
+          buffer.append("&#xD;");
+          break;
+        default:
+          buffer.append(c);
+          break;
+      }
+    }
+  }
+
+  private void close() {
+    try {
+      if (reader != null) {
+        reader.close();
+      }
+    } catch (final XMLStreamException e) {
+      // ignore
+    }
+    IOUtils.closeQuietly(in);
+    IOUtils.closeQuietly(characterStream);
+  }
+
+  // --- object basics --------------------------------------------------------
+
+}
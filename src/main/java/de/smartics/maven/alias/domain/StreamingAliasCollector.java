@@ -0,0 +1,91 @@
+/*
+ * Copyright 2012-2024 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.smartics.maven.alias.domain;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * A collector that writes each group to its output as soon as it is added
+ * instead of keeping all groups in memory.
+ * <p>
+ * Facts that depend on the whole catalog have to be provided before the first
+ * group is added. Use {@link AliasesProcessor#scanAliasNameLengths(
+ * org.xml.sax.InputSource)} to determine them with a lightweight pre-scan.
+ * </p>
+ */
+public interface StreamingAliasCollector extends AliasCollector {
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  // ****************************** Initializer *******************************
+
+  // ****************************** Inner Classes *****************************
+
+  // ********************************* Methods ********************************
+
+  // --- get&set --------------------------------------------------------------
+
+  // --- business -------------------------------------------------------------
+
+  /**
+   * Starts streaming to the given output. Every group added after this call is
+   * written to the output immediately.
+   *
+   * @param out the output to write to.
+   * @param maxAliasNameLength the maximum length of all alias names that will
+   *        be added.
+   * @throws IOException if the output cannot be written.
+   */
+  void startStream(Appendable out, int maxAliasNameLength) throws IOException;
+
+  /**
+   * Checks whether the collector has been {@link #startStream(Appendable, int)
+   * started} and not yet {@link #finishStream() finished}.
+   *
+   * @return <code>true</code> if groups are written as soon as they are added,
+   *         <code>false</code> otherwise.
+   */
+  boolean isStreaming();
+
+  /**
+   * Adds the aliases an extension has created from the group added last. While
+   * streaming, the extended aliases are handed over group by group, so they
+   * are not kept until the end of the catalog. The extension groups passed to
+   * {@link #setExtensionGroups(List)} at the end then contain no aliases and
+   * only provide the extensions in the order of their declaration.
+   *
+   * @param extensionGroup the extension with the aliases it has created from
+   *        the group added last.
+   * @throws IllegalStateException if the collector is not
+   *         {@link #isStreaming() streaming}.
+   */
+  void addExtendedAliases(ExtensionGroup extensionGroup)
+      throws IllegalStateException;
+
+  /**
+   * Writes the remaining information to the output and ends streaming.
+   *
+   * @throws IOException if the output cannot be written. Problems writing
+   *         groups added after {@link #startStream(Appendable, int)} are also
+   *         reported by this method.
+   */
+  void finishStream() throws IOException;
+
+  // --- object basics --------------------------------------------------------
+
+}
@@ -16,15 +16,21 @@
 package de.smartics.maven.alias.script;
 
 import de.smartics.maven.alias.domain.Alias;
+import de.smartics.maven.alias.domain.AliasExtension;
 import de.smartics.maven.alias.domain.AliasGroup;
 import de.smartics.maven.alias.domain.ExtensionGroup;
 import de.smartics.maven.alias.domain.ScriptBuilder;
+import de.smartics.maven.alias.domain.ScriptFileWriter;
 
 import org.apache.commons.lang.ObjectUtils;
 import org.codehaus.plexus.util.StringUtils;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Base implementation common to all script builders.
@@ -41,7 +47,7 @@ public abstract class AbstractScriptBuilder implements ScriptBuilder {
    * The value of this constant is {@value}.
    * </p>
    */
-  protected static final String BELL_VARIABLE = "{@bell}";
+  protected static final String BELL_VARIABLE = Alias.BELL_PLACEHOLDER;
 
   /**
    * The bell value to use.
@@ -106,6 +112,67 @@ public abstract class AbstractScriptBuilder implements ScriptBuilder {
   protected final List<ExtensionGroup> extensionGroups =
       new ArrayList<ExtensionGroup>();
 
+  /**
+   * The output to write groups to as soon as they are added. If
+   * <code>null</code> groups are collected and the script is rendered by
+   * {@link #createScript()}.
+   */
+  private Appendable out;
+
+  /**
+   * The start of the help messages while streaming. The help messages of the
+   * streamed groups are spilled and only represented by a placeholder.
+   */
+  private StringBuilder streamHelpAlias;
+
+  /**
+   * The placeholder of the spilled help messages of the streamed groups.
+   */
+  private String streamHelpPlaceholder;
+
+  /**
+   * The placeholders of the spilled names of the extended aliases by their
+   * extension while streaming.
+   */
+  private Map<AliasExtension, String> streamExtensionNames;
+
+  /**
+   * The text spilled to temporary files while streaming by the placeholders
+   * that mark its position in the output. The placeholders are enclosed in
+   * <code>NUL</code> characters that cannot be part of an XML document. Is
+   * <code>null</code> if not streaming.
+   */
+  private Map<String, TextSpill> spills;
+
+  /**
+   * The flag signals that at least one group has been written while
+   * streaming.
+   */
+  private boolean streamedGroups;
+
+  /**
+   * The first problem encountered while writing a group to {@link #out}.
+   */
+  private IOException streamFailure;
+
+  /**
+   * The writer for the help file of a minified script. If <code>null</code>
+   * the script is not minified.
+   */
+  private ScriptFileWriter helpFileWriter;
+
+  /**
+   * The hash of the alias catalog the script is generated from. May be
+   * <code>null</code>.
+   */
+  private String catalogHash;
+
+  /**
+   * The flag to return immediately if the script is run again for the same
+   * {@link #catalogHash catalog}.
+   */
+  private boolean catalogGuard;
+
   // ****************************** Initializer *******************************
 
   // ****************************** Constructors ******************************
@@ -171,10 +238,117 @@ public abstract class AbstractScriptBuilder implements ScriptBuilder {
    * informs about the default installation of the script. If set to
    * <code>false</code> no information is added.
    *
-   * @return the installation comment flag.
+   * @return the installation comment flag. Always <code>false</code> if the
+   *         script is {@link #isMinify() minified}.
    */
   protected final boolean isAddInstallationComment() {
-    return addInstallationComment;
+    return addInstallationComment && !isMinify();
+  }
+
+  /**
+   * Sets the writer for the help file to switch to minified output. A
+   * minified script contains no comments and uses compact separators. The
+   * help text is written as plain text to a file next to the script that is
+   * only read if the help is invoked.
+   *
+   * @param helpFileWriter the writer for the help file or <code>null</code>
+   *        to render the complete script.
+   */
+  public final void setMinify(final ScriptFileWriter helpFileWriter) {
+    this.helpFileWriter = helpFileWriter;
+  }
+
+  /**
+   * Checks whether or not the script is minified.
+   *
+   * @return <code>true</code> if the script is minified, <code>false</code>
+   *         otherwise.
+   */
+  protected final boolean isMinify() {
+    return helpFileWriter != null;
+  }
+
+  /**
+   * Sets the hash of the alias catalog the script is generated from. Scripts
+   * use the hash to name their internal variables and functions, so scripts
+   * generated from different catalogs do not interfere if sourced into the
+   * same shell.
+   *
+   * @param catalogHash the hash of the alias catalog or <code>null</code> if
+   *        unknown.
+   */
+  public final void setCatalogHash(final String catalogHash) {
+    this.catalogHash = catalogHash;
+  }
+
+  /**
+   * Returns the hash of the alias catalog the script is generated from.
+   *
+   * @return the hash of the alias catalog or <code>null</code> if unknown.
+   */
+  protected final String getCatalogHash() {
+    return catalogHash;
+  }
+
+  /**
+   * Sets the flag to guard the script against being run twice for the same
+   * catalog. The script remembers the {@link #setCatalogHash(String) hash}
+   * after its aliases have been defined and returns immediately if it is run
+   * again in the same shell with the same hash.
+   *
+   * @param catalogGuard <code>true</code> to guard the script,
+   *        <code>false</code> to define the aliases each time the script is
+   *        run.
+   */
+  public final void setCatalogGuard(final boolean catalogGuard) {
+    this.catalogGuard = catalogGuard;
+  }
+
+  /**
+   * Checks whether the script is guarded against being run twice for the same
+   * catalog.
+   *
+   * @return <code>true</code> if the guard is requested and the hash of the
+   *         catalog is known, <code>false</code> otherwise.
+   */
+  protected final boolean isCatalogGuard() {
+    return catalogGuard && catalogHash != null;
+  }
+
+  /**
+   * Writes the help text of a minified script.
+   *
+   * @param path the path of the help file relative to the script.
+   * @param help the help text.
+   * @throws IOException if the file cannot be written.
+   */
+  protected final void writeHelpFile(final String path,
+      final CharSequence help) throws IOException {
+    writeFile(helpFileWriter, path, help);
+  }
+
+  /**
+   * Writes a file accompanying the script. While streaming, placeholders of
+   * {@link #spill(String, CharSequence) spilled} text are replaced by the
+   * text.
+   *
+   * @param writer the writer for the file.
+   * @param path the path of the file relative to the script.
+   * @param content the content of the file.
+   * @throws IOException if the file cannot be written.
+   */
+  protected final void writeFile(final ScriptFileWriter writer,
+      final String path, final CharSequence content) throws IOException {
+    if (spills == null) {
+      writer.write(path, content);
+      return;
+    }
+
+    writer.write(path, new ScriptFileWriter.Content() {
+      public void writeTo(final Appendable out) throws IOException {
+        writeSpliced(out, content);
+      }
+    });
   }
 
   @Override
@@ -187,10 +361,15 @@ public abstract class AbstractScriptBuilder implements ScriptBuilder {
 
   @Override
   public final void addAliases(final AliasGroup group) {
-    final AliasGroup myGroup = group.filter(id);
+    final List<Alias> aliases = group.getAliases(id);
+
+    if (!aliases.isEmpty()) {
+      if (out != null) {
+        streamGroup(group);
+        return;
+      }
 
-    if (!myGroup.isEmpty()) {
-      for (final Alias alias : myGroup.getAliases()) {
+      for (final Alias alias : aliases) {
         final int length = alias.getName().length();
         if (length > maxAliasNameLength) {
           maxAliasNameLength = length;
@@ -201,6 +380,253 @@ public abstract class AbstractScriptBuilder implements ScriptBuilder {
     }
   }
 
+  @Override
+  public final String createScript() {
+    final StringBuilder script = new StringBuilder(2048);
+    try {
+      writeScript(script);
+    } catch (final IOException e) {
+      // A string builder does not throw I/O exceptions.
+      throw new IllegalStateException(e);
+    }
+    return script.toString();
+  }
+
+  @Override
+  public final void writeScript(final Appendable out) throws IOException {
+    final StringBuilder helpAlias = createHelpAliasStringBuffer();
+    final StringBuilder script = new StringBuilder(2048);
+
+    appendHeader(script);
+    flush(script, out);
+    for (final AliasGroup group : aliasGroups) {
+      appendGroup(script, helpAlias, group);
+      flush(script, out);
+    }
+    appendFooter(script, helpAlias, !aliasGroups.isEmpty());
+    flush(script, out);
+  }
+
+  private static void flush(final StringBuilder script, final Appendable out)
+      throws IOException {
+    out.append(script);
+    script.setLength(0);
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * The help messages of the groups and the names of extended aliases are
+   * spilled to temporary files until they are written after the last group.
+   * Extended aliases are written as soon as they are added.
+   * </p>
+   */
+  @Override
+  public final void startStream(final Appendable out,
+      final int maxAliasNameLength) throws IOException {
+    if (maxAliasNameLength > this.maxAliasNameLength) {
+      this.maxAliasNameLength = maxAliasNameLength;
+    }
+    this.streamHelpAlias = createHelpAliasStringBuffer();
+    this.streamedGroups = false;
+    this.streamFailure = null;
+    this.spills = new HashMap<String, TextSpill>();
+    this.streamExtensionNames = new LinkedHashMap<AliasExtension, String>();
+
+    try {
+      streamHelpPlaceholder = createSpill();
+      streamHelpAlias.append(streamHelpPlaceholder);
+
+      final StringBuilder script = new StringBuilder(512);
+      appendHeader(script);
+      out.append(script);
+    } catch (final IOException e) {
+      endStream();
+      throw e;
+    }
+    this.out = out;
+  }
+
+  @Override
+  public final boolean isStreaming() {
+    return out != null;
+  }
+
+  private void streamGroup(final AliasGroup group) {
+    streamedGroups = true;
+    if (streamFailure == null) {
+      final StringBuilder script = new StringBuilder(2048);
+      final StringBuilder helpAlias = new StringBuilder(512);
+      try {
+        appendGroup(script, helpAlias, group);
+        out.append(script);
+        spill(streamHelpPlaceholder, helpAlias);
+        afterStreamed();
+      } catch (final IOException e) {
+        streamFailure = e;
+      }
+    }
+  }
+
+  @Override
+  public final void addExtendedAliases(final ExtensionGroup extensionGroup)
+      throws IllegalStateException {
+    if (out == null) {
+      throw new IllegalStateException("Streaming has not been started.");
+    }
+
+    final AliasExtension extension = extensionGroup.getExtension();
+    if (streamFailure != null || !isApplicable(extension)) {
+      return;
+    }
+
+    final StringBuilder script = new StringBuilder(512);
+    final StringBuilder names = new StringBuilder(64);
+    for (final Alias alias : extensionGroup.getAliases()) {
+      names.append(' ');
+      appendEscapedHelp(names, alias.getName());
+    }
+    try {
+      appendExtension(script, extensionGroup);
+      out.append(script);
+      afterStreamed();
+
+      String placeholder = streamExtensionNames.get(extension);
+      if (placeholder == null) {
+        placeholder = createSpill();
+        streamExtensionNames.put(extension, placeholder);
+      }
+      spill(placeholder, names);
+    } catch (final IOException e) {
+      streamFailure = e;
+    }
+  }
+
+  @Override
+  public final void finishStream() throws IOException {
+    if (out == null) {
+      throw new IllegalStateException("Streaming has not been started.");
+    }
+
+    try {
+      if (streamFailure != null) {
+        throw streamFailure;
+      }
+
+      final StringBuilder script = new StringBuilder(2048);
+      appendFooter(script, streamHelpAlias, streamedGroups);
+      writeSpliced(out, script);
+    } finally {
+      out = null;
+      endStream();
+    }
+  }
+
+  private void endStream() {
+    for (final TextSpill spill : spills.values()) {
+      spill.delete();
+    }
+    spills = null;
+    streamExtensionNames = null;
+    streamHelpAlias = null;
+    streamHelpPlaceholder = null;
+  }
+
+  /**
+   * Called while streaming after a group or the aliases created by an
+   * extension have been written. Subclasses spill text they collect for the
+   * footer. Per default nothing is done.
+   *
+   * @throws IOException if text cannot be spilled.
+   */
+  protected void afterStreamed() throws IOException {
+    // Nothing collected per default.
+  }
+
+  /**
+   * Creates a temporary file to spill text to while streaming.
+   *
+   * @return the placeholder that marks the position of the spilled text.
+   * @throws IOException if the temporary file cannot be created.
+   */
+  protected final String createSpill() throws IOException {
+    final String placeholder = "\0" + spills.size() + '\0';
+    spills.put(placeholder, new TextSpill());
+    return placeholder;
+  }
+
+  /**
+   * Appends text to a temporary file while streaming. The text is written in
+   * place of the placeholder when the footer is written to the script or a
+   * {@link #writeFile(ScriptFileWriter, String, CharSequence) file}.
+   *
+   * @param placeholder the placeholder {@link #createSpill() created} for the
+   *        temporary file.
+   * @param text the text to append.
+   * @throws IOException if the text cannot be written.
+   */
+  protected final void spill(final String placeholder, final CharSequence text)
+      throws IOException {
+    spills.get(placeholder).append(text);
+  }
+
+  private void writeSpliced(final Appendable out, final CharSequence text)
+      throws IOException {
+    final String string = text.toString();
+    int start = 0;
+    int index = string.indexOf('\0');
+    while (index >= 0) {
+      final int end = string.indexOf('\0', index + 1) + 1;
+      final TextSpill spill = spills.get(string.substring(index, end));
+      out.append(string, start, index);
+      spill.writeTo(out);
+      start = end;
+      index = string.indexOf('\0', start);
+    }
+    out.append(string, start, string.length());
+  }
+
+  /**
+   * Creates the buffer to collect the help messages in. Called after the
+   * maximum length of alias names is known.
+   *
+   * @return the buffer to collect the help messages.
+   */
+  protected abstract StringBuilder createHelpAliasStringBuffer();
+
+  /**
+   * Appends the start of the script that is rendered before the first group.
+   *
+   * @param script the script to append to.
+   */
+  protected abstract void appendHeader(StringBuilder script);
+
+  /**
+   * Appends the aliases of the given group to the script and their help
+   * messages to the help buffer.
+   *
+   * @param script the script to append to.
+   * @param helpAlias the buffer for help messages.
+   * @param group the group to append. Aliases not belonging to the
+   *        environment of this builder are skipped.
+   * @throws IOException if files accompanying the script cannot be written.
+   */
+  protected abstract void appendGroup(StringBuilder script,
+      StringBuilder helpAlias, AliasGroup group) throws IOException;
+
+  /**
+   * Appends the extensions, the help and the end of the script that is
+   * rendered after the last group.
+   *
+   * @param script the script to append to.
+   * @param helpAlias the buffer with the help messages of all groups.
+   * @param hasGroups <code>true</code> if at least one group has been
+   *        appended, <code>false</code> otherwise.
+   * @throws IOException if files accompanying the script cannot be written.
+   */
+  protected abstract void appendFooter(StringBuilder script,
+      StringBuilder helpAlias, boolean hasGroups) throws IOException;
+
   /**
    * Appends extensions to the script.
    *
@@ -209,32 +635,77 @@ public abstract class AbstractScriptBuilder implements ScriptBuilder {
    */
   protected final void appendExtensions(final StringBuilder helpAlias,
       final StringBuilder script) {
-    // FIXME echo may not be correct for every script...
     final List<ExtensionGroup> filteredGroups = filter(extensionGroups);
     if (!filteredGroups.isEmpty()) {
-      helpAlias.append("echo  --- ALIAS EXTENSIONS").append(getCommandDelim());
+      appendHelpLine(helpAlias, "--- ALIAS EXTENSIONS");
 
+      final StringBuilder line = new StringBuilder(128);
       for (final ExtensionGroup extension : filteredGroups) {
-        helpAlias.append("echo  ...")
-            .append(extension.getExtension().getName());
+        line.setLength(0);
+        line.append("...").append(extension.getExtension().getName());
 
         final String mnemonic = extension.getExtension().getMnemonic();
         if (StringUtils.isNotBlank(mnemonic)) {
-          helpAlias.append(" (").append(mnemonic).append("):");
+          line.append(" (").append(mnemonic).append("):");
         }
 
+        appendExtension(script, extension);
         for (final Alias alias : extension.getAliases()) {
-          final String key =
-              String.format("%1$-" + maxAliasNameLength + "s", alias.getName());
-          appendAlias(script, alias, key);
-          helpAlias.append(' ').append(alias.getName());
+          line.append(' ').append(alias.getName());
+        }
+        if (streamExtensionNames != null
+            && streamExtensionNames.containsKey(extension.getExtension())) {
+          line.append(streamExtensionNames.get(extension.getExtension()));
         }
 
-        helpAlias.append(getCommandDelim()).append(' ');
+        appendHelpLine(helpAlias, line);
       }
     }
   }
 
+  /**
+   * Appends the aliases created by an extension to the script. Per default
+   * each extended alias is {@link #appendAlias(StringBuilder, Alias, String)
+   * appended} with its complete command.
+   *
+   * @param script the script to append to.
+   * @param extension the extension group with the extended aliases.
+   */
+  protected void appendExtension(final StringBuilder script,
+      final ExtensionGroup extension) {
+    for (final Alias alias : extension.getAliases()) {
+      final String key =
+          String.format("%1$-" + maxAliasNameLength + "s", alias.getName());
+      appendAlias(script, alias, key);
+    }
+  }
+
+  /**
+   * Appends text to a line of the help listing escaped the same way
+   * {@link #appendHelpLine(StringBuilder, CharSequence)} escapes a complete
+   * line. Per default the text is not escaped.
+   *
+   * @param helpAlias the buffer for help messages.
+   * @param text the text to append.
+   */
+  protected void appendEscapedHelp(final StringBuilder helpAlias,
+      final String text) {
+    helpAlias.append(text);
+  }
+
+  /**
+   * Appends a line to the help listing. Per default the line is printed with
+   * <code>echo</code> and followed by the {@link #getCommandDelim() command
+   * delimiter}.
+   *
+   * @param helpAlias the buffer for help messages.
+   * @param line the line to print.
+   */
+  protected void appendHelpLine(final StringBuilder helpAlias,
+      final CharSequence line) {
+    helpAlias.append("echo  ").append(line).append(getCommandDelim());
+  }
+
   // private static String normalizeComment(final String comment)
   // {
   // final String normComment = comment.trim().replaceAll("\\s+", " ");
@@ -246,16 +717,19 @@ public abstract class AbstractScriptBuilder implements ScriptBuilder {
     final List<ExtensionGroup> filteredGroups =
         new ArrayList<ExtensionGroup>(extensionGroups.size());
 
-    final String scriptEnv = getId();
     for (final ExtensionGroup group : extensionGroups) {
-      final String env = group.getExtension().getEnv();
-      if (env == null || ObjectUtils.equals(scriptEnv, env)) {
+      if (isApplicable(group.getExtension())) {
         filteredGroups.add(group);
       }
     }
     return filteredGroups;
   }
 
+  private boolean isApplicable(final AliasExtension extension) {
+    final String env = extension.getEnv();
+    return env == null || ObjectUtils.equals(getId(), env);
+  }
+
   /**
    * Returns the command delimiter.
    *
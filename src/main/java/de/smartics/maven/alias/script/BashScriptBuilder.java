@@ -16,11 +16,22 @@
 package de.smartics.maven.alias.script;
 
 import de.smartics.maven.alias.domain.Alias;
+import de.smartics.maven.alias.domain.AliasExtension;
 import de.smartics.maven.alias.domain.AliasGroup;
+import de.smartics.maven.alias.domain.ExtensionGroup;
+import de.smartics.maven.alias.domain.ScriptFileWriter;
 
 import org.codehaus.plexus.util.StringUtils;
 
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
 import java.util.StringTokenizer;
+import java.util.TreeMap;
 
 /**
  * Creates an alias script for Linux Bash.
@@ -52,8 +63,193 @@ public final class BashScriptBuilder extends AbstractScriptBuilder {
    */
   private static final String COMMAND_DELIM = " && ";
 
+  /**
+   * Escapes commands for the help text. The commands are displayed by
+   * <code>echo</code> within double quotes, which in turn is part of the help
+   * alias definition within single quotes.
+   */
+  private static final HelpEscaper HELP_ESCAPER = new HelpEscaper.Builder()
+      .replace("\\", "\\\\").replace("\"", "\\\"").replace("$", "\\$")
+      .replace("`", "\\`").replace("'", "'\\''").build();
+
+  /**
+   * The folder relative to the script the group files are written to in lazy
+   * mode.
+   * <p>
+   * The value of this constant is {@value}.
+   * </p>
+   */
+  public static final String GROUP_FOLDER = ID + ".d";
+
+  /**
+   * The name of the function that sources a group file in lazy mode. The key
+   * of the script is appended.
+   * <p>
+   * The value of this constant is {@value}.
+   * </p>
+   */
+  private static final String LOADER = "__alias_load";
+
+  /**
+   * The name of the variable that stores the absolute path of the folder the
+   * script has been sourced from. The key of the script is appended.
+   * <p>
+   * The value of this constant is {@value}.
+   * </p>
+   */
+  private static final String FOLDER_VARIABLE = "__alias_dir";
+
+  /**
+   * The number of characters of the catalog hash used as the key of the
+   * script.
+   * <p>
+   * The value of this constant is {@value}.
+   * </p>
+   */
+  private static final int KEY_LENGTH = 12;
+
+  /**
+   * The name of the variable that stores the help text if the help is printed
+   * by a function. The key of the script is appended.
+   * <p>
+   * The value of this constant is {@value}.
+   * </p>
+   */
+  private static final String HELP_VARIABLE = "__alias_help";
+
+  /**
+   * The prefix of the names of the arrays that store the aliases for the
+   * lookup by the help function. The kind of array and the key of the script
+   * are appended.
+   * <p>
+   * The value of this constant is {@value}.
+   * </p>
+   */
+  private static final String LOOKUP_PREFIX = "__alias_";
+
+  /**
+   * The prefix of the functions that apply the template of an extension if
+   * extensions are dispatched. The name of the extension and the key of the
+   * script are appended.
+   * <p>
+   * The value of this constant is {@value}.
+   * </p>
+   */
+  private static final String DISPATCHER_PREFIX = "__alias_ext_";
+
+  /**
+   * The characters that end a command within a template. The word following
+   * them is in command position.
+   * <p>
+   * The value of this constant is {@value}.
+   * </p>
+   */
+  private static final String COMMAND_SEPARATORS = ";&|({\n";
+
+  /**
+   * The words that may precede a command without changing how its first word
+   * is resolved.
+   */
+  private static final Set<String> COMMAND_PREFIXES = new HashSet<String>(
+      Arrays.asList("!", "time", "if", "then", "elif", "else", "while",
+          "until", "do"));
+
+  /**
+   * The name of the help file written next to a minified script.
+   * <p>
+   * The value of this constant is {@value}.
+   * </p>
+   */
+  public static final String HELP_FILE = ID + ".help";
+
+  /**
+   * The name of the variable that stores the hash of the alias catalog once
+   * the script has been sourced.
+   * <p>
+   * The value of this constant is {@value}.
+   * </p>
+   */
+  private static final String CATALOG_VARIABLE = "__alias_catalog";
+
+  /**
+   * Escapes the help text to be assigned to {@link #HELP_VARIABLE} within
+   * single quotes.
+   */
+  private static final HelpEscaper HELP_TEXT_ESCAPER =
+      new HelpEscaper.Builder().replace("'", "'\\''").build();
+
   // --- members --------------------------------------------------------------
 
+  /**
+   * The writer for group files in lazy mode. If <code>null</code> all
+   * functions are defined in the script.
+   */
+  private ScriptFileWriter lazyFileWriter;
+
+  /**
+   * The number of groups written in lazy mode. Used to name the group files.
+   */
+  private int groupCounter;
+
+  /**
+   * The flag to print the help by a function instead of an alias.
+   */
+  private boolean helpFunction;
+
+  /**
+   * The flag to add a lookup of single aliases to the help function.
+   */
+  private boolean helpLookup;
+
+  /**
+   * The aliases defined in the script sorted by name. Only collected if
+   * {@link #helpLookup} is set.
+   */
+  private final Map<String, Alias> lookupAliases = new TreeMap<String, Alias>();
+
+  /**
+   * The flag to define the template of each extension once and the extended
+   * aliases as stubs calling it.
+   */
+  private boolean extensionDispatcher;
+
+  /**
+   * The aliases defined as functions in the script by name. Only collected if
+   * {@link #extensionDispatcher} is set.
+   */
+  private final Map<String, Alias> definedAliases =
+      new HashMap<String, Alias>();
+
+  /**
+   * The names of the dispatcher functions defined in the script. While
+   * streaming, the aliases of an extension are appended in several portions,
+   * but its dispatcher is defined only once.
+   */
+  private final Set<String> definedDispatchers = new HashSet<String>();
+
+  /**
+   * The flag to define functions with identical bodies only once.
+   */
+  private boolean dedupeCommands;
+
+  /**
+   * The name of the first function defined for each function body. Only
+   * collected if {@link #dedupeCommands} is set.
+   */
+  private final Map<String, String> functionsByBody =
+      new HashMap<String, String>();
+
+  /**
+   * The number of functions defined for aliases by the last script.
+   */
+  private int functionCount;
+
+  /**
+   * The number of functions of the last script that forward to a function
+   * with an identical body.
+   */
+  private int forwardedFunctionCount;
+
   // ****************************** Initializer *******************************
 
   // ****************************** Constructors ******************************
@@ -75,6 +271,125 @@ public final class BashScriptBuilder extends AbstractScriptBuilder {
 
   // --- get&set --------------------------------------------------------------
 
+  /**
+   * Sets the writer for group files to switch to lazy mode. In lazy mode the
+   * functions of each group are written to a separate file in
+   * {@link #GROUP_FOLDER}. The script defines only stubs that source the group
+   * file on first call and then call the loaded function. Aliases created by
+   * extensions are always defined in the script.
+   *
+   * @param lazyFileWriter the writer for group files or <code>null</code> to
+   *        define all functions in the script.
+   */
+  public void setLazy(final ScriptFileWriter lazyFileWriter) {
+    this.lazyFileWriter = lazyFileWriter;
+  }
+
+  /**
+   * Sets the flag to print the help by a function instead of an alias. The
+   * help text is rendered completely when the script is generated and stored
+   * in a single variable that the function prints with <code>printf</code>.
+   * Per default the help is printed by an alias that calls <code>echo</code>
+   * for each line.
+   *
+   * @param helpFunction <code>true</code> to print the help by a function,
+   *        <code>false</code> to use an alias.
+   */
+  public void setHelpFunction(final boolean helpFunction) {
+    this.helpFunction = helpFunction;
+  }
+
+  /**
+   * Sets the flag to add a lookup of single aliases to the help function.
+   * Implies {@link #setHelpFunction(boolean) the help function}. The commands
+   * and comments of all aliases are stored in associative arrays, so
+   * <code>h NAME</code> shows the alias with the given name by a single
+   * lookup. If there is no such alias, all aliases whose names contain the
+   * given text are listed. Comments are shown as plain text without markup.
+   * The arrays are declared with <code>declare -gA</code>, which requires
+   * Bash 4.2 or later. Note that macOS ships with Bash 3.2.
+   *
+   * @param helpLookup <code>true</code> to add the lookup,
+   *        <code>false</code> otherwise.
+   */
+  public void setHelpLookup(final boolean helpLookup) {
+    this.helpLookup = helpLookup;
+  }
+
+  /**
+   * Sets the flag to dispatch extended aliases to a single function per
+   * extension. The template of each extension is defined once as a function
+   * that runs the command passed to it. Each extended alias is a stub that
+   * passes the name of the alias it extends and its arguments to that
+   * function. So the size of the script grows with the number of aliases
+   * plus the number of extensions instead of their product. Extended aliases
+   * whose original alias is not defined by the script or does not append its
+   * arguments to its command are defined with their complete command. So are the aliases of extensions whose template does
+   * not run the command as a simple command of its own, for instance by
+   * passing it to <code>env</code> or <code>sh -c</code>, since the function
+   * of the original alias is not visible to the program running it.
+   *
+   * @param extensionDispatcher <code>true</code> to dispatch extended aliases,
+   *        <code>false</code> to define each with its complete command.
+   */
+  public void setExtensionDispatcher(final boolean extensionDispatcher) {
+    this.extensionDispatcher = extensionDispatcher;
+  }
+
+  /**
+   * Sets the flag to define functions with identical bodies only once. The
+   * first alias with a given command is defined with the complete command,
+   * each later alias with the same command forwards its arguments to the
+   * function of the first alias.
+   *
+   * @param dedupeCommands <code>true</code> to forward identical commands,
+   *        <code>false</code> to define each alias with its complete command.
+   */
+  public void setDedupeCommands(final boolean dedupeCommands) {
+    this.dedupeCommands = dedupeCommands;
+  }
+
+  /**
+   * Returns the number of functions defined for aliases by the last script.
+   *
+   * @return the number of functions defined for aliases.
+   */
+  public int getFunctionCount() {
+    return functionCount;
+  }
+
+  /**
+   * Returns the number of functions of the last script that forward to a
+   * function with an identical command.
+   *
+   * @return the number of forwarding functions. Always <code>0</code> if
+   *         {@link #setDedupeCommands(boolean) commands are not deduplicated}.
+   */
+  public int getForwardedFunctionCount() {
+    return forwardedFunctionCount;
+  }
+
+  /**
+   * Returns the name of an internal variable or function of the script. The
+   * name is qualified by the catalog hash or, if the hash is not known, by
+   * the name of the help alias. So scripts sourced into the same shell do not
+   * overwrite the internals of each other.
+   *
+   * @param name the unqualified name.
+   * @return the name qualified for this script.
+   */
+  private String qualify(final String name) {
+    final String hash = getCatalogHash();
+    final String key = StringUtils.isNotBlank(hash)
+        ? hash.substring(0, Math.min(hash.length(), KEY_LENGTH))
+        : aliasHelpName;
+    return name + '_' + key.replaceAll("[^A-Za-z0-9_]", "_");
+  }
+
+  private boolean isHelpFunction() {
+    return helpFunction || helpLookup || isMinify();
+  }
+
   @Override
   protected Object getCommandDelim() {
     return COMMAND_DELIM;
@@ -83,46 +398,253 @@ public final class BashScriptBuilder extends AbstractScriptBuilder {
   // --- business -------------------------------------------------------------
 
   @Override
-  public String createScript() {
-    final int maxAliasNameLength = getMaxAliasNameLength();
-    final String helpKey =
-        String.format("%-" + maxAliasNameLength + 's', aliasHelpName);
-
-    final StringBuilder helpAlias = createHelpAliasStringBuffer();
-    final StringBuilder script = new StringBuilder(2048);
-
+  protected void appendHeader(final StringBuilder script) {
     script.append("#!/bin/bash").append(NEWLINE);
     appendAsComment(script, this.commentIntro);
     appendInstallationComment(script);
+    if (isCatalogGuard()) {
+      script.append("[ \"${").append(CATALOG_VARIABLE).append("-}\" = '")
+          .append(getCatalogHash()).append("' ] && return 0").append(NEWLINE);
+    }
+    if (lazyFileWriter != null || isMinify()) {
+      appendScriptFolder(script);
+    }
+    if (lazyFileWriter != null) {
+      appendLoader(script);
+    }
+  }
+
+  private void appendScriptFolder(final StringBuilder script) {
+    final String folder = qualify(FOLDER_VARIABLE);
+    script.append(folder).append("=\"${BASH_SOURCE[0]%/*}\"").append(NEWLINE)
+        .append("[ \"$").append(folder).append("\" = \"${BASH_SOURCE[0]}\" ]")
+        .append(" && ").append(folder).append("=.").append(NEWLINE)
+        .append("case \"$").append(folder).append("\" in /*) ;;")
+        .append(" *) ").append(folder).append("=\"$PWD/$").append(folder)
+        .append("\" ;; esac").append(NEWLINE);
+  }
 
-    for (final AliasGroup group : aliasGroups) {
+  /**
+   * Appends the function that replaces a stub by the function of its group
+   * file and calls it. The stub is removed first, so a group file that does
+   * not define the function results in an error instead of an endless
+   * recursion.
+   */
+  private void appendLoader(final StringBuilder script) {
+    groupCounter = 0;
+    appendFunctionStart(script, qualify(LOADER));
+    script.append("local f=$1 n=$2; shift 2; unset -f \"$n\"; source \"$")
+        .append(qualify(FOLDER_VARIABLE)).append('/').append(GROUP_FOLDER)
+        .append("/$f\" || return; declare -F \"$n\" > /dev/null")
+        .append(" || { echo \"$n: not defined by $f\" >&2; return 127; };")
+        .append(" \"$n\" \"$@\"");
+    appendFunctionEnd(script);
+  }
+
+  private void appendFunctionStart(final StringBuilder script,
+      final String name) {
+    if (isMinify()) {
+      script.append("function ").append(name).append(" { ");
+    } else {
+      script.append("function ").append(name).append("() { ");
+    }
+  }
+
+  private void appendFunctionEnd(final StringBuilder script) {
+    script.append(isMinify() ? ";}" : "; }").append(NEWLINE);
+  }
+
+  @Override
+  protected void appendGroup(final StringBuilder script,
+      final StringBuilder helpAlias, final AliasGroup group)
+      throws IOException {
+    final String groupFile =
+        lazyFileWriter != null ? "group-" + (++groupCounter) + ".sh" : null;
+    final StringBuilder definitions =
+        groupFile != null ? new StringBuilder(2048) : script;
+    final int maxAliasNameLength = getMaxAliasNameLength();
+    if (isHelpFunction()) {
+      appendHelpLine(helpAlias, " --- " + group.getName());
+    } else {
       helpAlias.append("echo \" --- ").append(group.getName()).append('\"')
           .append(COMMAND_DELIM);
-      for (final Alias alias : group.getAliases()) {
-        final String aliasEnv = alias.getEnv();
-        if (aliasEnv == null || ID.equals(aliasEnv)) {
-          final String key =
-              String.format("%1$-" + maxAliasNameLength + "s", alias.getName());
-          appendAlias(script, alias);
-          appendHelp(helpAlias, alias, key);
-        }
+    }
+    for (final Alias alias : group.getAliases(ID)) {
+      final String key =
+          String.format("%1$-" + maxAliasNameLength + "s", alias.getName());
+      appendAlias(definitions, alias);
+      if (groupFile != null) {
+        appendStub(script, alias, groupFile);
       }
+      appendHelp(helpAlias, alias, key);
     }
 
+    if (groupFile != null) {
+      lazyFileWriter.write(GROUP_FOLDER + '/' + groupFile, definitions);
+    }
+  }
+
+  @Override
+  protected void appendFooter(final StringBuilder script,
+      final StringBuilder helpAlias, final boolean hasGroups)
+      throws IOException {
+    final int maxAliasNameLength = getMaxAliasNameLength();
+    final String helpKey =
+        String.format("%-" + maxAliasNameLength + 's', aliasHelpName);
+
     appendExtensions(helpAlias, script);
 
-    if (!aliasGroups.isEmpty()) {
-      helpAlias.append("echo \" --- \"").append("help").append(COMMAND_DELIM);
-    }
+    if (isHelpFunction()) {
+      appendHelpFunction(script, helpAlias, helpKey, hasGroups);
+    } else {
+      if (hasGroups) {
+        helpAlias.append("echo \" --- \"").append("help")
+            .append(COMMAND_DELIM);
+      }
 
-    helpAlias.append("echo \" ").append(helpKey).append(" = This help.\"");
-    appendDocUrl(helpAlias);
-    helpAlias.append('\''); // We have to close the remembered "'".
+      helpAlias.append("echo \" ").append(helpKey).append(" = This help.\"");
+      appendDocUrl(helpAlias);
+      helpAlias.append('\''); // We have to close the remembered "'".
 
-    script.append(helpAlias).append(NEWLINE);
+      script.append(helpAlias).append(NEWLINE);
+    }
+    if (isCatalogGuard()) {
+      script.append(CATALOG_VARIABLE).append("='").append(getCatalogHash())
+          .append('\'').append(NEWLINE);
+    }
     appendAsComment(script, this.commentExtro);
+  }
+
+  private void appendHelpFunction(final StringBuilder script,
+      final StringBuilder helpText, final String helpKey,
+      final boolean hasGroups) throws IOException {
+    if (hasGroups) {
+      appendHelpLine(helpText, " --- help");
+    }
+    appendHelpLine(helpText, " " + helpKey + " = This help.");
+    if (helpLookup) {
+      appendHelpLine(helpText, "Use '" + aliasHelpName
+          + " TEXT' to show the alias TEXT or all aliases containing TEXT.");
+    }
+    if (StringUtils.isNotBlank(docUrl)) {
+      appendHelpLine(helpText, "For additional information please refer to: ");
+      appendHelpLine(helpText, "  " + docUrl);
+    }
 
-    return script.toString();
+    final String printHelp;
+    if (isMinify()) {
+      writeHelpFile(HELP_FILE, helpText);
+      printHelp =
+          "cat \"$" + qualify(FOLDER_VARIABLE) + '/' + HELP_FILE + '"';
+    } else {
+      final String variable = qualify(HELP_VARIABLE);
+      script.append(variable).append("='").append(helpText).append('\'')
+          .append(NEWLINE);
+      printHelp = "printf '%s' \"$" + variable + '"';
+    }
+    script.append("unalias ").append(aliasHelpName).append(" 2> /dev/null")
+        .append(NEWLINE);
+    if (helpLookup) {
+      appendLookupFunction(script, printHelp);
+    } else {
+      appendFunctionStart(script, aliasHelpName);
+      script.append(printHelp);
+      appendFunctionEnd(script);
+    }
+  }
+
+  private void appendLookupFunction(final StringBuilder script,
+      final String printHelp) {
+    final String commands = qualify(LOOKUP_PREFIX + "commands");
+    final String comments = qualify(LOOKUP_PREFIX + "comments");
+    final String names = qualify(LOOKUP_PREFIX + "names");
+    script.append("declare -gA ").append(commands).append("=(");
+    for (final Entry<String, Alias> entry : lookupAliases.entrySet()) {
+      appendLookupEntry(script, entry.getKey(), entry.getValue().getCommand());
+    }
+    script.append(NEWLINE).append(')').append(NEWLINE).append("declare -gA ")
+        .append(comments).append("=(");
+    for (final Entry<String, Alias> entry : lookupAliases.entrySet()) {
+      final String comment = entry.getValue().getComment();
+      if (StringUtils.isNotBlank(comment)) {
+        appendLookupEntry(script, entry.getKey(), toPlainText(comment));
+      }
+    }
+    script.append(NEWLINE).append(')').append(NEWLINE).append(names)
+        .append("=(");
+    for (final String name : lookupAliases.keySet()) {
+      script.append(" '");
+      HELP_TEXT_ESCAPER.escape(script, name);
+      script.append('\'');
+    }
+    script.append(" )").append(NEWLINE);
+
+    script.append("function ").append(aliasHelpName).append("() {")
+        .append(NEWLINE).append("  if [ $# -eq 0 ]; then ").append(printHelp)
+        .append("; return; fi").append(NEWLINE).append("  if [ -n \"${")
+        .append(commands).append("[$1]+x}\" ]; then").append(NEWLINE)
+        .append("    printf ' %s = %s\\n' \"$1\" \"${").append(commands)
+        .append("[$1]}\"").append(NEWLINE).append("    [ -z \"${")
+        .append(comments).append("[$1]}\" ] || printf '   %s\\n' \"${")
+        .append(comments).append("[$1]}\"").append(NEWLINE)
+        .append("    return").append(NEWLINE).append("  fi").append(NEWLINE)
+        .append("  local __alias_name").append(NEWLINE)
+        .append("  for __alias_name in \"${").append(names)
+        .append("[@]}\"; do").append(NEWLINE)
+        .append("    case \"$__alias_name\" in *\"$1\"*) printf ' %s = %s\\n'")
+        .append(" \"$__alias_name\" \"${").append(commands)
+        .append("[$__alias_name]}\" ;; esac").append(NEWLINE).append("  done")
+        .append(NEWLINE).append('}').append(NEWLINE);
+  }
+
+  /**
+   * Reduces the XML fragment of a comment to its text. Markup is removed,
+   * the predefined XML entities are resolved and whitespace is collapsed to
+   * a single space.
+   *
+   * @param comment the comment as read from the alias XML.
+   * @return the text of the comment.
+   */
+  private static String toPlainText(final String comment) {
+    String text = comment.replaceAll("<[^>]*>", "");
+    text = StringUtils.replace(text, "&lt;", "<");
+    text = StringUtils.replace(text, "&gt;", ">");
+    text = StringUtils.replace(text, "&quot;", "\"");
+    text = StringUtils.replace(text, "&apos;", "'");
+    text = StringUtils.replace(text, "&amp;", "&");
+    return text.trim().replaceAll("\\s+", " ");
+  }
+
+  private static void appendLookupEntry(final StringBuilder script,
+      final String key, final String value) {
+    script.append(NEWLINE).append("  ['");
+    HELP_TEXT_ESCAPER.escape(script, key);
+    script.append("']='");
+    HELP_TEXT_ESCAPER.escape(script, value);
+    script.append('\'');
+  }
+
+  @Override
+  protected void appendHelpLine(final StringBuilder helpAlias,
+      final CharSequence line) {
+    if (isHelpFunction()) {
+      appendHelpText(helpAlias, line.toString());
+      helpAlias.append(NEWLINE);
+    } else {
+      helpAlias.append("echo \"");
+      HELP_ESCAPER.escape(helpAlias, line.toString());
+      helpAlias.append('"').append(COMMAND_DELIM);
+    }
+  }
+
+  @Override
+  protected void appendEscapedHelp(final StringBuilder helpAlias,
+      final String text) {
+    if (isHelpFunction()) {
+      appendHelpText(helpAlias, text);
+    } else {
+      HELP_ESCAPER.escape(helpAlias, text);
+    }
   }
 
   private void appendDocUrl(final StringBuilder helpAlias) {
@@ -147,8 +669,18 @@ public final class BashScriptBuilder extends AbstractScriptBuilder {
     }
   }
 
-  private StringBuilder createHelpAliasStringBuffer() {
+  @Override
+  protected StringBuilder createHelpAliasStringBuffer() {
     final StringBuilder helpAlias = new StringBuilder(1024);
+    lookupAliases.clear();
+    definedAliases.clear();
+    definedDispatchers.clear();
+    functionsByBody.clear();
+    functionCount = 0;
+    forwardedFunctionCount = 0;
+    if (isHelpFunction()) {
+      return helpAlias;
+    }
     helpAlias.append("alias ").append(aliasHelpName).append("='");
     // Unfortunately we have to remember to close the "'".
     return helpAlias;
@@ -161,21 +693,201 @@ public final class BashScriptBuilder extends AbstractScriptBuilder {
   @Override
   protected void appendAlias(final StringBuilder script, final Alias alias,
       final String key) {
+    if (helpLookup) {
+      lookupAliases.put(alias.getName(), alias);
+    }
+    if (extensionDispatcher) {
+      definedAliases.put(alias.getName(), alias);
+    }
+    functionCount++;
+    if (dedupeCommands) {
+      appendDedupedFunction(script, alias);
+    } else {
+      appendFunction(script, alias);
+    }
+  }
+
+  private void appendDedupedFunction(final StringBuilder script,
+      final Alias alias) {
+    final String name = alias.getName();
+    final StringBuilder body = new StringBuilder(64);
+    appendBody(body, alias);
+    final String bodyText = body.toString();
+    final String target = functionsByBody.get(bodyText);
+    if (target == null) {
+      functionsByBody.put(bodyText, name);
+    } else if (!target.equals(name)
+        && target.length() + 5 < bodyText.length()) {
+      forwardedFunctionCount++;
+      appendFunctionStart(script, name);
+      script.append(target).append(" \"$@\"");
+      appendFunctionEnd(script);
+      return;
+    }
+    appendFunctionStart(script, name);
+    script.append(body);
+    appendFunctionEnd(script);
+  }
+
+  private void appendFunction(final StringBuilder script, final Alias alias) {
+    appendFunctionStart(script, alias.getName());
+    appendBody(script, alias);
+    appendFunctionEnd(script);
+  }
+
+  private static void appendBody(final StringBuilder script,
+      final Alias alias) {
     // Bash always accepts appended arguments. So there is no check for pass.
-    script.append("function ").append(alias.getName()).append("() { ");
-    final String command = alias.getCommand().replace("{@args}", "$@")
-        .replace(BELL_VARIABLE, BELL_VALUE);
-    script.append(command);
+    alias.getCommandTemplate().render(script, "$@", BELL_VALUE);
     if (alias.isPassArgs()) {
       script.append(" $@");
     }
-    script.append("; }").append(NEWLINE);
+  }
+
+  @Override
+  protected void appendExtension(final StringBuilder script,
+      final ExtensionGroup extension) {
+    if (!extensionDispatcher) {
+      super.appendExtension(script, extension);
+      return;
+    }
+
+    final AliasExtension aliasExtension = extension.getExtension();
+    if (!isDispatchable(aliasExtension.getTemplate())) {
+      super.appendExtension(script, extension);
+      return;
+    }
+
+    final String suffix = aliasExtension.getName();
+    final String dispatcher = qualify(DISPATCHER_PREFIX + suffix);
+    for (final Alias alias : extension.getAliases()) {
+      final String name = alias.getName();
+      final String originalName =
+          name.substring(0, Math.max(0, name.length() - suffix.length()));
+      if (!name.endsWith(suffix)
+          || !isAppendingArgs(definedAliases.get(originalName))) {
+        appendAlias(script, alias);
+        continue;
+      }
+
+      if (definedDispatchers.add(dispatcher)) {
+        appendFunction(script, aliasExtension.wrap(dispatcher, "\"$@\""));
+      }
+      if (helpLookup) {
+        lookupAliases.put(name, alias);
+      }
+      appendFunctionStart(script, name);
+      script.append(dispatcher).append(' ').append(originalName)
+          .append(" \"$@\"");
+      appendFunctionEnd(script);
+    }
+  }
+
+  /**
+   * Checks whether the function of the given alias appends all its arguments
+   * to its command. Only then the words the template places after the
+   * command are passed on by the dispatcher as they are by the complete
+   * definition.
+   *
+   * @param alias the original alias or <code>null</code> if it is not defined
+   *        by the script.
+   * @return <code>true</code> if the alias appends its arguments,
+   *         <code>false</code> otherwise.
+   */
+  private static boolean isAppendingArgs(final Alias alias) {
+    return alias != null && alias.isPassArgs()
+        && !alias.getCommand().contains(Alias.ARGS_PLACEHOLDER);
+  }
+
+  /**
+   * Checks whether each placeholder of the template starts a simple command.
+   * Only then the dispatcher is able to run the original alias by the words
+   * passed to it. The check is conservative: placeholders within quotes or
+   * preceded by words other than variable assignments and reserved words are
+   * not dispatched.
+   *
+   * @param template the template of the extension.
+   * @return <code>true</code> if the extended aliases may be dispatched,
+   *         <code>false</code> if they have to be defined completely.
+   */
+  private static boolean isDispatchable(final String template) {
+    final String placeholder = AliasExtension.PLACEHOLDER;
+    int index = template.indexOf(placeholder);
+    if (index < 0) {
+      return false;
+    }
+
+    while (index >= 0) {
+      final int end = index + placeholder.length();
+      if (!isCommandPosition(template.substring(0, index))
+          || end < template.length()
+              && !Character.isWhitespace(template.charAt(end))
+              && ";&|)}".indexOf(template.charAt(end)) < 0) {
+        return false;
+      }
+      index = template.indexOf(placeholder, end);
+    }
+    return true;
+  }
+
+  private static boolean isCommandPosition(final String prefix) {
+    int start = 0;
+    char quote = 0;
+    for (int i = 0; i < prefix.length(); i++) {
+      final char c = prefix.charAt(i);
+      if (quote != 0) {
+        if (c == quote) {
+          quote = 0;
+        } else if (c == '\\' && quote == '"') {
+          i++;
+        }
+      } else if (c == '\'' || c == '"' || c == '`') {
+        quote = c;
+      } else if (c == '\\') {
+        i++;
+      } else if (COMMAND_SEPARATORS.indexOf(c) >= 0) {
+        start = i + 1;
+      }
+    }
+
+    final String command = prefix.substring(start);
+    if (quote != 0 || command.matches("(?s).*['\"`\\\\$].*")
+        || command.length() > 0
+            && !Character.isWhitespace(command.charAt(command.length() - 1))) {
+      return false;
+    }
+    for (final String word : StringUtils.split(command)) {
+      if (!COMMAND_PREFIXES.contains(word)
+          && !word.matches("[A-Za-z_][A-Za-z0-9_]*=\\S*")) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void appendStub(final StringBuilder script, final Alias alias,
+      final String groupFile) {
+    final String name = alias.getName();
+    appendFunctionStart(script, name);
+    script.append(qualify(LOADER)).append(' ').append(groupFile).append(' ')
+        .append(name).append(" \"$@\"");
+    appendFunctionEnd(script);
   }
 
   private void appendHelp(final StringBuilder helpAlias, final Alias alias,
       final String key) {
-    helpAlias.append("echo \" ").append(key).append(" = ")
-        .append(alias.getCommand());
+    if (isHelpFunction()) {
+      helpAlias.append(' ').append(key).append(" = ");
+      appendHelpText(helpAlias, alias.getCommand());
+      if (alias.isPassArgs()) {
+        helpAlias.append(" [args]");
+      }
+      helpAlias.append(NEWLINE);
+      return;
+    }
+
+    helpAlias.append("echo \" ").append(key).append(" = ");
+    HELP_ESCAPER.escape(helpAlias, alias.getCommand());
 
     if (alias.isPassArgs()) {
       helpAlias.append(" [args]");
@@ -184,9 +896,18 @@ public final class BashScriptBuilder extends AbstractScriptBuilder {
     helpAlias.append('"').append(COMMAND_DELIM);
   }
 
-  private static void appendAsComment(final StringBuilder script,
+  private void appendHelpText(final StringBuilder helpText,
+      final String text) {
+    if (isMinify()) {
+      helpText.append(text);
+    } else {
+      HELP_TEXT_ESCAPER.escape(helpText, text);
+    }
+  }
+
+  private void appendAsComment(final StringBuilder script,
       final String text) {
-    if (StringUtils.isBlank(text)) {
+    if (isMinify() || StringUtils.isBlank(text)) {
       return;
     }
 
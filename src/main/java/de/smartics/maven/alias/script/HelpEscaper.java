@@ -0,0 +1,225 @@
+/*
+ * Copyright 2012-2024 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.smartics.maven.alias.script;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Escapes commands to be displayed by the help alias of a script. The
+ * replacements are compiled into a lookup table indexed by the first character
+ * of the sequence to replace, so each command is scanned only once.
+ * <p>
+ * Replaced text is never scanned again, therefore the result does not depend
+ * on the order the replacements are applied. If several sequences start at the
+ * same position, the longest one wins.
+ * </p>
+ */
+final class HelpEscaper {
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  // --- members --------------------------------------------------------------
+
+  /**
+   * The sequences to replace indexed by their first character. The sequences
+   * of each entry are sorted by length, longest first. Characters without
+   * replacements map to <code>null</code>.
+   */
+  private final String[][] sequences;
+
+  /**
+   * The replacements in the same layout as {@link #sequences}.
+   */
+  private final String[][] replacements;
+
+  // ****************************** Initializer *******************************
+
+  // ****************************** Constructors ******************************
+
+  private HelpEscaper(final Builder builder) {
+    int size = 0;
+    for (final String sequence : builder.sequences) {
+      size = Math.max(size, sequence.charAt(0) + 1);
+    }
+    this.sequences = new String[size][];
+    this.replacements = new String[size][];
+
+    for (int i = 0, count = builder.sequences.size(); i < count; i++) {
+      final String sequence = builder.sequences.get(i);
+      final char first = sequence.charAt(0);
+      final String[] current = sequences[first];
+      int index = 0;
+      while (current != null && index < current.length
+          && current[index].length() >= sequence.length()) {
+        index++;
+      }
+      sequences[first] = insert(current, index, sequence);
+      replacements[first] =
+          insert(replacements[first], index, builder.replacements.get(i));
+    }
+  }
+
+  // ****************************** Inner Classes *****************************
+
+  /**
+   * The builder for {@link HelpEscaper} instances.
+   */
+  static final class Builder {
+    // ******************************** Fields ********************************
+
+    // --- constants ----------------------------------------------------------
+
+    // --- members ------------------------------------------------------------
+
+    /**
+     * The sequences to replace.
+     */
+    private final List<String> sequences = new ArrayList<String>();
+
+    /**
+     * The replacements for the sequences with the same index.
+     */
+    private final List<String> replacements = new ArrayList<String>();
+
+    // ***************************** Initializer ******************************
+
+    // ***************************** Constructors *****************************
+
+    // ***************************** Inner Classes ****************************
+
+    // ******************************** Methods *******************************
+
+    // --- init ---------------------------------------------------------------
+
+    // --- get&set ------------------------------------------------------------
+
+    /**
+     * Adds a replacement.
+     *
+     * @param sequence the sequence of characters to replace.
+     * @param replacement the replacement for the sequence.
+     * @return a reference to this builder.
+     * @throws IllegalArgumentException if {@code sequence} is empty or has
+     *         already been added.
+     * @throws NullPointerException if {@code sequence} or {@code replacement}
+     *         is <code>null</code>.
+     */
+    Builder replace(final String sequence, final String replacement)
+        throws IllegalArgumentException, NullPointerException {
+      if (replacement == null) {
+        throw new NullPointerException("'replacement' must not be 'null'.");
+      }
+      if (sequence.length() == 0) {
+        throw new IllegalArgumentException(
+            "The sequence to replace must not be empty.");
+      }
+      if (sequences.contains(sequence)) {
+        throw new IllegalArgumentException(
+            "The sequence '" + sequence + "' has already been added.");
+      }
+
+      sequences.add(sequence);
+      replacements.add(replacement);
+      return this;
+    }
+
+    // --- business -----------------------------------------------------------
+
+    /**
+     * Creates the escaper.
+     *
+     * @return the escaper compiled from the replacements of this builder.
+     */
+    HelpEscaper build() {
+      return new HelpEscaper(this);
+    }
+
+    // --- object basics ------------------------------------------------------
+  }
+
+  // ********************************* Methods ********************************
+
+  // --- init -----------------------------------------------------------------
+
+  private static String[] insert(final String[] entries, final int index,
+      final String entry) {
+    if (entries == null) {
+      return new String[] {entry};
+    }
+
+    final String[] newEntries = new String[entries.length + 1];
+    System.arraycopy(entries, 0, newEntries, 0, index);
+    newEntries[index] = entry;
+    System.arraycopy(entries, index, newEntries, index + 1,
+        entries.length - index);
+    return newEntries;
+  }
+
+  // --- get&set --------------------------------------------------------------
+
+  // --- business -------------------------------------------------------------
+
+  /**
+   * Appends the escaped text to the output.
+   *
+   * @param out the output to append to.
+   * @param text the text to escape.
+   */
+  void escape(final StringBuilder out, final String text) {
+    final int length = text.length();
+    int start = 0;
+    int pos = 0;
+    while (pos < length) {
+      final char c = text.charAt(pos);
+      final String[] candidates = c < sequences.length ? sequences[c] : null;
+      int matched = -1;
+      if (candidates != null) {
+        for (int i = 0; i < candidates.length; i++) {
+          if (text.startsWith(candidates[i], pos)) {
+            matched = i;
+            break;
+          }
+        }
+      }
+
+      if (matched >= 0) {
+        out.append(text, start, pos).append(replacements[c][matched]);
+        pos += candidates[matched].length();
+        start = pos;
+      } else {
+        pos++;
+      }
+    }
+    out.append(text, start, length);
+  }
+
+  /**
+   * Returns the escaped text.
+   *
+   * @param text the text to escape.
+   * @return the escaped text.
+   */
+  String escape(final String text) {
+    final StringBuilder out = new StringBuilder(text.length() + 16);
+    escape(out, text);
+    return out.toString();
+  }
+
+  // --- object basics --------------------------------------------------------
+
+}
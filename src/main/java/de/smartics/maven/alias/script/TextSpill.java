@@ -0,0 +1,139 @@
+/*
+ * Copyright 2012-2024 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.smartics.maven.alias.script;
+
+import org.apache.commons.io.IOUtils;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.CharBuffer;
+
+/**
+ * Collects text in a temporary file instead of memory. Used while streaming to
+ * keep text that can only be written after the last group.
+ */
+final class TextSpill {
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  /**
+   * The encoding of the temporary file.
+   * <p>
+   * The value of this constant is {@value}.
+   * </p>
+   */
+  private static final String ENCODING = "UTF-8";
+
+  /**
+   * The number of characters read at once.
+   * <p>
+   * The value of this constant is {@value}.
+   * </p>
+   */
+  private static final int BUFFER_SIZE = 8192;
+
+  // --- members --------------------------------------------------------------
+
+  /**
+   * The temporary file the text is collected in.
+   */
+  private final File file;
+
+  /**
+   * The writer to the temporary file.
+   */
+  private final Writer writer;
+
+  // ****************************** Initializer *******************************
+
+  // ****************************** Constructors ******************************
+
+  /**
+   * Default constructor.
+   *
+   * @throws IOException if the temporary file cannot be created.
+   */
+  TextSpill() throws IOException {
+    this.file = File.createTempFile("alias-", ".tmp");
+    try {
+      this.writer = new BufferedWriter(
+          new OutputStreamWriter(new FileOutputStream(file), ENCODING));
+    } catch (final IOException e) {
+      file.delete(); // NOPMD
+      throw e;
+    }
+  }
+
+  // ****************************** Inner Classes *****************************
+
+  // ********************************* Methods ********************************
+
+  // --- init -----------------------------------------------------------------
+
+  // --- get&set --------------------------------------------------------------
+
+  // --- business -------------------------------------------------------------
+
+  /**
+   * Appends the given text.
+   *
+   * @param text the text to append.
+   * @throws IOException if the text cannot be written to the temporary file.
+   */
+  void append(final CharSequence text) throws IOException {
+    writer.append(text);
+  }
+
+  /**
+   * Writes the text collected so far to the given output.
+   *
+   * @param out the output to write to.
+   * @throws IOException if the text cannot be read or written.
+   */
+  void writeTo(final Appendable out) throws IOException {
+    writer.flush();
+    final Reader reader =
+        new InputStreamReader(new FileInputStream(file), ENCODING);
+    try {
+      final char[] buffer = new char[BUFFER_SIZE];
+      int read;
+      while ((read = reader.read(buffer)) >= 0) {
+        out.append(CharBuffer.wrap(buffer, 0, read));
+      }
+    } finally {
+      IOUtils.closeQuietly(reader);
+    }
+  }
+
+  /**
+   * Deletes the temporary file.
+   */
+  void delete() {
+    IOUtils.closeQuietly(writer);
+    file.delete(); // NOPMD
+  }
+
+  // --- object basics --------------------------------------------------------
+
+}
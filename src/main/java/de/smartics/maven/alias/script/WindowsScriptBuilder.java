@@ -17,13 +17,11 @@ package de.smartics.maven.alias.script;
 
 import de.smartics.maven.alias.domain.Alias;
 import de.smartics.maven.alias.domain.AliasGroup;
+import de.smartics.maven.alias.domain.ScriptFileWriter;
 
 import org.codehaus.plexus.util.StringUtils;
 
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.Map;
-import java.util.Map.Entry;
+import java.io.IOException;
 import java.util.StringTokenizer;
 
 /**
@@ -57,13 +55,73 @@ public final class WindowsScriptBuilder extends AbstractScriptBuilder {
   private static final String COMMAND_DELIM = " ^& ";
 
   /**
-   * Map with replacements for the help text.
+   * Escapes commands for the help text.
    */
-  private static final Map<String, String> HELP_ALIAS_COMMAND_REPLACEMENTS =
-      new HashMap<String, String>();
+  private static final HelpEscaper HELP_ESCAPER = new HelpEscaper.Builder()
+      .replace("$T", ":").replace(">", "to").replace("&", ";")
+      .replace(BELL_VALUE, BELL_VARIABLE).replace("%", "").build();
+
+  /**
+   * The name of the doskey macro file written next to the script in macro
+   * file mode.
+   * <p>
+   * The value of this constant is {@value}.
+   * </p>
+   */
+  public static final String MACRO_FILE = ID + ".macros";
+
+  /**
+   * Command delimiter for macros in a doskey macro file.
+   * <p>
+   * The value of this constant is {@value}.
+   * </p>
+   */
+  private static final String MACRO_COMMAND_DELIM = " $T ";
+
+  /**
+   * The name of the help file written next to a minified script.
+   * <p>
+   * The value of this constant is {@value}.
+   * </p>
+   */
+  public static final String HELP_FILE = ID + ".help";
+
+  /**
+   * The name of the environment variable that stores the hash of the alias
+   * catalog once the macros have been defined.
+   * <p>
+   * The value of this constant is {@value}.
+   * </p>
+   */
+  private static final String CATALOG_VARIABLE = "__alias_catalog";
+
+  /**
+   * The label at the end of the script the guard jumps to.
+   * <p>
+   * The value of this constant is {@value}.
+   * </p>
+   */
+  private static final String GUARD_LABEL = ":__alias_end";
 
   // --- members --------------------------------------------------------------
 
+  /**
+   * The writer for the macro file. If <code>null</code> each macro is defined
+   * by a call to <code>doskey</code> in the script.
+   */
+  private ScriptFileWriter macroFileWriter;
+
+  /**
+   * The macros collected for the macro file.
+   */
+  private StringBuilder macros;
+
+  /**
+   * The placeholder of the macros spilled while streaming. Is
+   * <code>null</code> if no macros have been spilled.
+   */
+  private String macroSpill;
+
   /**
    * The help key formatted according to {@link #maxAliasNameLength}.
    */
@@ -71,14 +129,6 @@ public final class WindowsScriptBuilder extends AbstractScriptBuilder {
 
   // ****************************** Initializer *******************************
 
-  static {
-    HELP_ALIAS_COMMAND_REPLACEMENTS.put("$T", ":");
-    HELP_ALIAS_COMMAND_REPLACEMENTS.put(">", "to");
-    HELP_ALIAS_COMMAND_REPLACEMENTS.put("&", ";");
-    HELP_ALIAS_COMMAND_REPLACEMENTS.put(BELL_VALUE, BELL_VARIABLE);
-    HELP_ALIAS_COMMAND_REPLACEMENTS.put("%", "");
-  }
-
   // ****************************** Constructors ******************************
 
   /**
@@ -98,61 +148,185 @@ public final class WindowsScriptBuilder extends AbstractScriptBuilder {
 
   // --- get&set --------------------------------------------------------------
 
+  /**
+   * Sets the writer for the macro file to switch to macro file mode. In macro
+   * file mode all macros including the help are written to
+   * {@link #MACRO_FILE}. The script loads them with a single call to
+   * <code>doskey /macrofile</code> instead of calling <code>doskey</code> once
+   * per alias.
+   * <p>
+   * Commands are written for the batch parser. Since the macro file is not
+   * parsed as a batch file, the escapes are resolved when the macros are
+   * written: <code>%%</code> is written as <code>%</code> and a caret outside
+   * of double quotes is removed from the character it escapes. Environment
+   * variables like <code>%VAR%</code> are kept and therefore expanded each time
+   * the macro is run instead of once when the script is run.
+   * </p>
+   *
+   * @param macroFileWriter the writer for the macro file or <code>null</code>
+   *        to define each macro by a call to <code>doskey</code>.
+   */
+  public void setMacroFile(final ScriptFileWriter macroFileWriter) {
+    this.macroFileWriter = macroFileWriter;
+  }
+
   @Override
   protected Object getCommandDelim() {
-    return COMMAND_DELIM;
+    return macroFileWriter != null ? MACRO_COMMAND_DELIM : COMMAND_DELIM;
   }
 
   // --- business -------------------------------------------------------------
 
   @Override
-  public String createScript() {
-    final int maxAliasNameLength = getMaxAliasNameLength();
-    this.helpKey =
-        String.format("%-" + maxAliasNameLength + 's', aliasHelpName);
-
-    final StringBuilder helpAlias = createHelpAliasStringBuffer();
-    final StringBuilder script = new StringBuilder(2048);
-
+  protected void appendHeader(final StringBuilder script) {
     script.append("@echo off").append(NEWLINE);
     appendAsComment(script, this.commentIntro);
     appendInstallationComment(script);
+    appendGuard(script);
+  }
 
-    for (final AliasGroup group : aliasGroups) {
-      helpAlias.append("echo  --- ").append(group.getName())
-          .append(COMMAND_DELIM);
-      for (final Alias alias : group.getAliases()) {
-        final String aliasEnv = alias.getEnv();
-        if (aliasEnv == null || ID.equals(aliasEnv)) {
-          final String key =
-              String.format("%1$-" + maxAliasNameLength + "s", alias.getName());
-          appendAlias(script, alias, key);
-          appendHelp(helpAlias, alias, key);
-        }
+  private void appendGuard(final StringBuilder script) {
+    if (isCatalogGuard()) {
+      // The variable is inherited by new consoles that do not share the
+      // macros, so the existence of the help macro is checked, too.
+      script.append("if \"%").append(CATALOG_VARIABLE).append("%\"==\"")
+          .append(getCatalogHash()).append("\" (").append(NEWLINE)
+          .append("  doskey /macros | findstr /r /b /c:\"").append(aliasHelpName)
+          .append(" *=\" >nul && goto ").append(GUARD_LABEL.substring(1))
+          .append(NEWLINE).append(')').append(NEWLINE);
+    }
+  }
+
+  private void appendEnd(final StringBuilder script) {
+    if (isCatalogGuard()) {
+      script.append("set ").append(CATALOG_VARIABLE).append('=')
+          .append(getCatalogHash()).append(NEWLINE).append(GUARD_LABEL)
+          .append(NEWLINE);
+    }
+    script.append("@echo on").append(NEWLINE);
+  }
+
+  @Override
+  protected void appendGroup(final StringBuilder script,
+      final StringBuilder helpAlias, final AliasGroup group)
+      throws IOException {
+    final int maxAliasNameLength = getMaxAliasNameLength();
+    appendHelpLine(helpAlias, "--- " + group.getName());
+    for (final Alias alias : group.getAliases(ID)) {
+      final String key =
+          String.format("%1$-" + maxAliasNameLength + "s", alias.getName());
+      appendAlias(script, alias, key);
+      appendHelp(helpAlias, alias, key);
+    }
+
+    if (isStreaming() && isHelpMacro()) {
+      // The help of the group is spilled without passing the help macro.
+      final String help = helpAlias.toString();
+      helpAlias.setLength(0);
+      appendAsParsed(helpAlias, help);
+    }
+  }
+
+  @Override
+  protected void afterStreamed() throws IOException {
+    if (macros != null && macros.length() > 0) {
+      if (macroSpill == null) {
+        macroSpill = createSpill();
       }
+      spill(macroSpill, macros);
+      macros.setLength(0);
     }
+  }
+
+  private boolean isHelpMacro() {
+    return macroFileWriter != null && !isMinify();
+  }
 
+  @Override
+  protected void appendFooter(final StringBuilder script,
+      final StringBuilder helpAlias, final boolean hasGroups)
+      throws IOException {
     appendExtensions(helpAlias, script);
 
-    if (!aliasGroups.isEmpty()) {
-      helpAlias.append("echo  --- ").append("help").append(COMMAND_DELIM);
+    if (hasGroups) {
+      appendHelpLine(helpAlias, "--- help");
+    }
+
+    if (isMinify()) {
+      appendMinifiedHelp(script, helpAlias);
+      return;
     }
 
     helpAlias.append("echo  ").append(helpKey).append(" = This help.");
     appendDocUrl(helpAlias);
 
-    script.append(helpAlias).append(NEWLINE);
+    if (macroFileWriter != null) {
+      appendAsParsed(macros, helpAlias);
+      macros.append(NEWLINE);
+      writeMacroFile();
+      script.append("doskey /macrofile=\"%~dp0").append(MACRO_FILE)
+          .append('"').append(NEWLINE);
+    } else {
+      script.append(helpAlias).append(NEWLINE);
+    }
     appendAsComment(script, this.commentExtro);
 
-    script.append("@echo on").append(NEWLINE);
-    return script.toString();
+    appendEnd(script);
+  }
+
+  private void appendMinifiedHelp(final StringBuilder script,
+      final StringBuilder helpText) throws IOException {
+    appendHelpLine(helpText, helpKey + " = This help.");
+    if (StringUtils.isNotBlank(docUrl)) {
+      appendHelpLine(helpText, "For additional information please refer to: ");
+      appendHelpLine(helpText, "  " + docUrl);
+    }
+    writeHelpFile(HELP_FILE, helpText);
+
+    if (macroFileWriter != null) {
+      writeMacroFile();
+      script.append("doskey /macrofile=\"%~dp0").append(MACRO_FILE)
+          .append('"').append(NEWLINE);
+    }
+    script.append("doskey ").append(aliasHelpName).append("=type \"%~dp0")
+        .append(HELP_FILE).append('"').append(NEWLINE);
+    appendEnd(script);
+  }
+
+  private void writeMacroFile() throws IOException {
+    if (macroSpill != null) {
+      macros.insert(0, macroSpill);
+      macroSpill = null;
+    }
+    writeFile(macroFileWriter, MACRO_FILE, macros);
+    macros = null;
+  }
+
+  @Override
+  protected void appendEscapedHelp(final StringBuilder helpAlias,
+      final String text) {
+    if (isHelpMacro()) {
+      appendAsParsed(helpAlias, text);
+    } else {
+      helpAlias.append(text);
+    }
+  }
+
+  @Override
+  protected void appendHelpLine(final StringBuilder helpAlias,
+      final CharSequence line) {
+    if (isMinify()) {
+      helpAlias.append(line).append(NEWLINE);
+    } else {
+      super.appendHelpLine(helpAlias, line);
+    }
   }
 
   private void appendDocUrl(final StringBuilder helpAlias) {
     if (StringUtils.isNotBlank(docUrl)) {
-      helpAlias.append(COMMAND_DELIM)
+      helpAlias.append(getCommandDelim())
           .append("echo For additional information please refer to: ")
-          .append(COMMAND_DELIM).append("echo   ").append(docUrl);
+          .append(getCommandDelim()).append("echo   ").append(docUrl);
     }
   }
 
@@ -170,8 +344,22 @@ public final class WindowsScriptBuilder extends AbstractScriptBuilder {
     }
   }
 
-  private StringBuilder createHelpAliasStringBuffer() {
+  @Override
+  protected StringBuilder createHelpAliasStringBuffer() {
+    this.helpKey =
+        String.format("%-" + getMaxAliasNameLength() + 's', aliasHelpName);
     final StringBuilder helpAlias = new StringBuilder(1024);
+    if (macroFileWriter != null) {
+      this.macros = new StringBuilder(4096);
+    }
+    this.macroSpill = null;
+    if (isMinify()) {
+      return helpAlias;
+    }
+    if (macroFileWriter != null) {
+      helpAlias.append(aliasHelpName).append('=');
+      return helpAlias;
+    }
     helpAlias.append("doskey ").append(helpKey).append(" = "); // NOPMD
     return helpAlias;
   }
@@ -179,45 +367,84 @@ public final class WindowsScriptBuilder extends AbstractScriptBuilder {
   @Override
   protected void appendAlias(final StringBuilder script, final Alias alias,
       final String key) {
-    script.append("doskey ").append(key).append(" = ");
-    final String command = alias.getCommand().replace("{@args}", "$*")
-        .replace(BELL_VARIABLE, BELL_VALUE);
-    script.append(command);
+    final StringBuilder definitions;
+    if (macroFileWriter != null) {
+      definitions = new StringBuilder(64);
+      macros.append(alias.getName()).append('=');
+    } else if (isMinify()) {
+      definitions = script;
+      definitions.append("doskey ").append(alias.getName()).append('=');
+    } else {
+      definitions = script;
+      definitions.append("doskey ").append(key).append(" = ");
+    }
+    alias.getCommandTemplate().render(definitions, "$*", BELL_VALUE);
 
     if (alias.isPassArgs()) {
-      script.append(" $*");
+      definitions.append(" $*");
     }
 
-    script.append(NEWLINE);
+    if (macroFileWriter != null) {
+      appendAsParsed(macros, definitions);
+      macros.append(NEWLINE);
+    } else {
+      definitions.append(NEWLINE);
+    }
+  }
+
+  /**
+   * Appends a macro definition as the batch parser passes it to
+   * <code>doskey</code>. First <code>%%</code> is replaced by <code>%</code>,
+   * then carets outside of double quotes are removed. A caret at the end of
+   * the definition continues the line in a batch file and is dropped.
+   *
+   * @param macros the buffer to append the macro to.
+   * @param definition the macro definition written for the batch parser.
+   */
+  private static void appendAsParsed(final StringBuilder macros,
+      final CharSequence definition) {
+    final String text = StringUtils.replace(definition.toString(), "%%", "%");
+    final int length = text.length();
+    boolean quoted = false;
+    for (int i = 0; i < length; i++) {
+      final char c = text.charAt(i);
+      if (c == '^' && !quoted) {
+        if (++i < length) {
+          macros.append(text.charAt(i));
+        }
+      } else {
+        if (c == '"') {
+          quoted = !quoted;
+        }
+        macros.append(c);
+      }
+    }
   }
 
   private void appendHelp(final StringBuilder helpAlias, final Alias alias,
       final String key) {
-    helpAlias.append("echo  ").append(key).append(" = ")
-        .append(escapeCommandForHelp(alias.getCommand()));
+    if (isMinify()) {
+      helpAlias.append(key).append(" = ").append(alias.getCommand());
+      if (alias.isPassArgs()) {
+        helpAlias.append(" [args]");
+      }
+      helpAlias.append(NEWLINE);
+      return;
+    }
+
+    helpAlias.append("echo  ").append(key).append(" = ");
+    HELP_ESCAPER.escape(helpAlias, alias.getCommand());
 
     if (alias.isPassArgs()) {
       helpAlias.append(" [args]");
     }
 
-    helpAlias.append(COMMAND_DELIM);
-  }
-
-  private String escapeCommandForHelp(final String command) {
-
-    String escapedCommand = command;
-    for (final Iterator<Entry<String, String>> iterator =
-        HELP_ALIAS_COMMAND_REPLACEMENTS.entrySet().iterator(); iterator
-            .hasNext();) {
-      final Entry<String, String> entry = iterator.next();
-      escapedCommand = escapedCommand.replace(entry.getKey(), entry.getValue());
-    }
-    return escapedCommand;
+    helpAlias.append(getCommandDelim());
   }
 
-  private static void appendAsComment(final StringBuilder script,
+  private void appendAsComment(final StringBuilder script,
       final String text) {
-    if (StringUtils.isBlank(text)) {
+    if (isMinify() || StringUtils.isBlank(text)) {
       return;
     }
 
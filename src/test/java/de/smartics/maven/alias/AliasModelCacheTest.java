@@ -0,0 +1,192 @@
+/*
+ * Copyright 2012-2024 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.smartics.maven.alias;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import de.smartics.maven.alias.domain.AliasModel;
+import de.smartics.maven.alias.domain.AliasesProcessor;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.xml.sax.InputSource;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+
+/**
+ * Tests {@link AliasModelCache}.
+ */
+public class AliasModelCacheTest {
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  private static final String ALIASES =
+      "<aliases xmlns='http://smartics.de/alias/1.1.0'/>";
+
+  // --- members --------------------------------------------------------------
+
+  /**
+   * The temporary folder to write alias files to.
+   */
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  private File aliasFile;
+
+  private final Object session = new Object();
+
+  private AliasModel model;
+
+  // ****************************** Inner Classes *****************************
+
+  /**
+   * Counts the models read from the alias XML file.
+   */
+  private final class CountingReader
+      implements AliasModelCache.ModelReader<RuntimeException> {
+    private int count;
+
+    @Override
+    public AliasModel read() {
+      count++;
+      return model;
+    }
+  }
+
+  // ********************************* Methods ********************************
+
+  // --- prepare --------------------------------------------------------------
+
+  /**
+   * Test setup.
+   *
+   * @throws Exception on any problem creating the test file or model.
+   */
+  @Before
+  public void setUp() throws Exception {
+    aliasFile = tmp.newFile("alias.xml");
+    FileUtils.writeStringToFile(aliasFile, ALIASES, "UTF-8");
+    model = new AliasesProcessor(new InputSource(new StringReader(ALIASES)))
+        .readModel();
+  }
+
+  // --- helper ---------------------------------------------------------------
+
+  private AliasModelCache.Key createKey() throws IOException {
+    return AliasModelCache.Key.create(aliasFile);
+  }
+
+  // --- tests ----------------------------------------------------------------
+
+  @Test
+  public void returnsModelForSameFileAndSession() throws IOException {
+    AliasModelCache.put(session, createKey(), model);
+
+    assertSame(model, AliasModelCache.get(session, createKey(), true));
+  }
+
+  @Test
+  public void returnsNoModelForOtherSession() throws IOException {
+    AliasModelCache.put(session, createKey(), model);
+
+    assertNull(AliasModelCache.get(new Object(), createKey(), true));
+  }
+
+  @Test
+  public void returnsNoModelIfFileHasChanged() throws IOException {
+    AliasModelCache.put(session, createKey(), model);
+    FileUtils.writeStringToFile(aliasFile, ALIASES + ' ', "UTF-8");
+
+    assertNull(AliasModelCache.get(session, createKey(), true));
+  }
+
+  @Test
+  public void returnsNoModelWithoutRequiredComments() throws Exception {
+    final AliasesProcessor processor =
+        new AliasesProcessor(new InputSource(new StringReader(ALIASES)));
+    processor.setReadComments(false);
+    AliasModelCache.put(session, createKey(), processor.readModel());
+
+    assertNull(AliasModelCache.get(session, createKey(), true));
+    assertNotNull(AliasModelCache.get(session, createKey(), false));
+  }
+
+  @Test
+  public void readsModelOncePerSessionAndLoadsSnapshotOtherwise()
+      throws IOException {
+    final File snapshot = new File(tmp.getRoot(), "model.bin");
+    final CountingReader reader = new CountingReader();
+
+    assertSame(model, AliasModelCache.read(session, createKey(), true,
+        snapshot, reader, new SystemStreamLog()));
+    assertSame(model, AliasModelCache.read(session, createKey(), true,
+        snapshot, reader, new SystemStreamLog()));
+    assertNotNull(AliasModelCache.read(new Object(), createKey(), true,
+        snapshot, reader, new SystemStreamLog()));
+
+    assertEquals(1, reader.count);
+  }
+
+  @Test
+  public void storesSnapshotsWithAndWithoutCommentsSeparately()
+      throws Exception {
+    final File snapshot = new File(tmp.getRoot(), "model.bin");
+    final AliasesProcessor processor =
+        new AliasesProcessor(new InputSource(new StringReader(ALIASES)));
+    processor.setReadComments(false);
+    final AliasModel plainModel = processor.readModel();
+
+    AliasModelCache.read(new Object(), createKey(), false, snapshot,
+        new AliasModelCache.ModelReader<RuntimeException>() {
+          @Override
+          public AliasModel read() {
+            return plainModel;
+          }
+        }, new SystemStreamLog());
+    final CountingReader reader = new CountingReader();
+    AliasModelCache.read(new Object(), createKey(), true, snapshot, reader,
+        new SystemStreamLog());
+    AliasModelCache.read(new Object(), createKey(), true, snapshot, reader,
+        new SystemStreamLog());
+
+    final CountingReader plainReader = new CountingReader();
+    AliasModelCache.read(new Object(), createKey(), false, snapshot,
+        plainReader, new SystemStreamLog());
+
+    assertEquals(1, reader.count);
+    assertEquals(0, plainReader.count);
+    assertTrue(snapshot.isFile());
+    assertTrue(new File(tmp.getRoot(), "model-comments.bin").isFile());
+  }
+
+  @Test
+  public void cachesNothingWithoutSession() throws IOException {
+    AliasModelCache.put(null, createKey(), model);
+
+    assertNull(AliasModelCache.get(null, createKey(), true));
+  }
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2012-2024 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.smartics.maven.alias;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Tests {@link AtomicFileOutputStream}.
+ */
+public class AtomicFileOutputStreamTest {
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  private static final String CONTENT = "function any() { command $@; }\n";
+
+  private static final long PAST = 1000000000000L;
+
+  // --- members --------------------------------------------------------------
+
+  /**
+   * The temporary folder to write scripts to.
+   */
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  private File script;
+
+  // ****************************** Inner Classes *****************************
+
+  // ********************************* Methods ********************************
+
+  // --- prepare --------------------------------------------------------------
+
+  /**
+   * Test setup.
+   *
+   * @throws IOException on any problem creating the test folder.
+   */
+  @Before
+  public void setUp() throws IOException {
+    script = new File(tmp.newFolder("scripts"), "bash");
+  }
+
+  // --- helper ---------------------------------------------------------------
+
+  private FileDigest write(final String content) throws IOException {
+    return write(content, null);
+  }
+
+  private FileDigest write(final String content, final FileDigest recorded)
+      throws IOException {
+    final AtomicFileOutputStream out =
+        new AtomicFileOutputStream(script, recorded);
+    try {
+      out.write(content.getBytes("UTF-8"));
+    } finally {
+      out.close();
+    }
+    return out.getDigest();
+  }
+
+  private void assertNoTemporaryFile() {
+    assertEquals(Arrays.asList(script.getName()),
+        Arrays.asList(script.getParentFile().list()));
+  }
+
+  // --- tests ----------------------------------------------------------------
+
+  @Test
+  public void writesNewFile() throws IOException {
+    write(CONTENT);
+
+    assertEquals(CONTENT, FileUtils.readFileToString(script, "UTF-8"));
+    assertNoTemporaryFile();
+  }
+
+  @Test
+  public void keepsIdenticalFileUntouched() throws IOException {
+    FileUtils.writeStringToFile(script, CONTENT, "UTF-8");
+    script.setLastModified(PAST);
+
+    write(CONTENT);
+    assertEquals(PAST, script.lastModified());
+
+    write(CONTENT);
+    assertEquals(PAST, script.lastModified());
+    assertNoTemporaryFile();
+  }
+
+  @Test
+  public void replacesFileWithDifferentContentOfSameSize() throws IOException {
+    write(CONTENT);
+    script.setLastModified(PAST);
+
+    final String changed = CONTENT.replace("any", "all");
+    write(changed);
+
+    assertEquals(changed, FileUtils.readFileToString(script, "UTF-8"));
+    assertFalse(PAST == script.lastModified());
+  }
+
+  @Test
+  public void trustsRecordedDigestOfUnchangedTarget() throws IOException {
+    final FileDigest digest = write(CONTENT);
+    final long lastModified = script.lastModified();
+
+    // Same size and modification time: the target is not read again.
+    final String tampered = CONTENT.replace("any", "all");
+    FileUtils.writeStringToFile(script, tampered, "UTF-8");
+    script.setLastModified(lastModified);
+    write(CONTENT, digest);
+
+    assertEquals(tampered, FileUtils.readFileToString(script, "UTF-8"));
+  }
+
+  @Test
+  public void comparesContentsIfTargetChangedSinceDigest() throws IOException {
+    final FileDigest digest = write(CONTENT);
+
+    FileUtils.writeStringToFile(script, CONTENT.replace("any", "all"),
+        "UTF-8");
+    script.setLastModified(PAST);
+    write(CONTENT, digest);
+
+    assertEquals(CONTENT, FileUtils.readFileToString(script, "UTF-8"));
+  }
+
+  @Test
+  public void usesDistinctTemporaryFiles() throws IOException {
+    final AtomicFileOutputStream first = new AtomicFileOutputStream(script);
+    final AtomicFileOutputStream second = new AtomicFileOutputStream(script);
+    try {
+      assertEquals(2, script.getParentFile().list().length);
+    } finally {
+      first.abort();
+      second.abort();
+    }
+
+    assertEquals(0, script.getParentFile().list().length);
+  }
+
+  @Test
+  public void keepsExecutablePermission() throws IOException {
+    write(CONTENT);
+    assumeTrue(script.setExecutable(true));
+
+    write(CONTENT.replace("any", "all"));
+
+    assertTrue(script.canExecute());
+    assertNoTemporaryFile();
+  }
+
+  @Test
+  public void keepsTargetIfAborted() throws IOException {
+    write(CONTENT);
+
+    final AtomicFileOutputStream out = new AtomicFileOutputStream(script);
+    try {
+      out.write("partial".getBytes("UTF-8"));
+    } finally {
+      out.abort();
+    }
+
+    assertEquals(CONTENT, FileUtils.readFileToString(script, "UTF-8"));
+    assertNoTemporaryFile();
+  }
+
+  @Test
+  public void ignoresAbortAfterClose() throws IOException {
+    final AtomicFileOutputStream out = new AtomicFileOutputStream(script);
+    try {
+      out.write(CONTENT.getBytes("UTF-8"));
+      out.close();
+    } finally {
+      out.abort();
+    }
+
+    assertEquals(CONTENT, FileUtils.readFileToString(script, "UTF-8"));
+  }
+
+  @Test(expected = IOException.class)
+  public void rejectsWriteAfterClose() throws IOException {
+    final AtomicFileOutputStream out = new AtomicFileOutputStream(script);
+    out.close();
+
+    out.write('x');
+  }
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright 2012-2024 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.smartics.maven.alias;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import de.smartics.maven.alias.domain.AliasGroup;
+import de.smartics.maven.alias.domain.ExtensionGroup;
+import de.smartics.maven.alias.domain.ScriptBuilder;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests {@link MavenAliasMojo}.
+ */
+public class MavenAliasMojoTest {
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  private static final String CONTENT = "# script ";
+
+  // --- members --------------------------------------------------------------
+
+  /**
+   * The temporary folder to write scripts to.
+   */
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  private File scriptFolder;
+
+  private MavenAliasMojo uut;
+
+  private final List<String> errors =
+      Collections.synchronizedList(new ArrayList<String>());
+
+  // ****************************** Inner Classes *****************************
+
+  /**
+   * Writes a fixed content and optionally fails afterwards.
+   */
+  private static final class FakeScriptBuilder implements ScriptBuilder {
+    private final String id;
+
+    private final IOException failure;
+
+    private FakeScriptBuilder(final String id, final IOException failure) {
+      this.id = id;
+      this.failure = failure;
+    }
+
+    public String getId() {
+      return id;
+    }
+
+    public void setCommentIntro(final String intro) {}
+
+    public void setCommentExtro(final String extro) {}
+
+    public void setDocUrl(final String docUrl) {}
+
+    public void setAddInstallationComment(
+        final boolean addInstallationComment) {}
+
+    public void addAliases(final AliasGroup group) {}
+
+    public void setExtensionGroups(
+        final List<ExtensionGroup> extensionGroups) {}
+
+    public void startStream(final Appendable out,
+        final int maxAliasNameLength) {}
+
+    public void finishStream() {}
+
+    public boolean isStreaming() {
+      return false;
+    }
+
+    public void addExtendedAliases(final ExtensionGroup extensionGroup) {}
+
+    public String createScript() {
+      return CONTENT + id;
+    }
+
+    public void writeScript(final Appendable out) throws IOException {
+      out.append(createScript());
+      if (failure != null) {
+        throw failure;
+      }
+    }
+  }
+
+  // ********************************* Methods ********************************
+
+  // --- prepare --------------------------------------------------------------
+
+  /**
+   * Test setup.
+   *
+   * @throws IOException on any problem creating the test folder.
+   */
+  @Before
+  public void setUp() throws IOException {
+    scriptFolder = tmp.newFolder("alias-scripts");
+    uut = new MavenAliasMojo();
+    uut.setLog(new SystemStreamLog() {
+      @Override
+      public void error(final CharSequence content) {
+        errors.add(content.toString());
+      }
+    });
+  }
+
+  // --- helper ---------------------------------------------------------------
+
+  private void setThreads(final int threads) throws Exception {
+    setField("threads", threads);
+  }
+
+  private void setField(final String name, final Object value)
+      throws Exception {
+    final Field field = MavenAliasMojo.class.getDeclaredField(name);
+    field.setAccessible(true);
+    field.set(uut, value);
+  }
+
+  // --- tests ----------------------------------------------------------------
+
+  @Test
+  public void writesScriptsInParallel() throws Exception {
+    setThreads(2);
+
+    uut.writeScripts(scriptFolder, new ScriptBuilder[] {
+        new FakeScriptBuilder("bash", null),
+        new FakeScriptBuilder("windows", null)});
+
+    assertEquals(CONTENT + "bash", FileUtils.readFileToString(
+        new File(scriptFolder, "bash"), "UTF-8"));
+    assertEquals(CONTENT + "windows", FileUtils.readFileToString(
+        new File(scriptFolder, "windows"), "UTF-8"));
+    assertTrue(errors.isEmpty());
+  }
+
+  @Test
+  public void reportsAllFailuresAndThrowsFirstInParallel() throws Exception {
+    setThreads(2);
+    final IOException first = new IOException("first");
+    final IOException second = new IOException("second");
+
+    try {
+      uut.writeScripts(scriptFolder, new ScriptBuilder[] {
+          new FakeScriptBuilder("bash", first),
+          new FakeScriptBuilder("windows", second)});
+      fail("Expected failure writing the scripts.");
+    } catch (final MojoExecutionException e) {
+      assertSame(first, e.getCause());
+    }
+
+    assertEquals(2, errors.size());
+    assertTrue(errors.get(0), errors.get(0).contains("'bash'"));
+    assertTrue(errors.get(1), errors.get(1).contains("'windows'"));
+  }
+
+  @Test
+  public void throwsFailureSequentially() throws Exception {
+    setThreads(1);
+    final IOException failure = new IOException("failure");
+
+    try {
+      uut.writeScripts(scriptFolder, new ScriptBuilder[] {
+          new FakeScriptBuilder("bash", failure),
+          new FakeScriptBuilder("windows", null)});
+      fail("Expected failure writing the scripts.");
+    } catch (final MojoExecutionException e) {
+      assertSame(failure, e.getCause());
+    }
+  }
+
+  @Test
+  public void keepsPreviousScriptIfBuilderFails() throws Exception {
+    final File script = new File(scriptFolder, "bash");
+    FileUtils.writeStringToFile(script, "# previous", "UTF-8");
+
+    try {
+      uut.writeScripts(scriptFolder, new ScriptBuilder[] {
+          new FakeScriptBuilder("bash", new IOException("failure"))});
+      fail("Expected failure writing the script.");
+    } catch (final MojoExecutionException e) {
+      assertEquals("# previous", FileUtils.readFileToString(script, "UTF-8"));
+      assertEquals(Arrays.asList("bash"), Arrays.asList(scriptFolder.list()));
+    }
+  }
+
+  @Test
+  public void deletesFilesNotGeneratedAnymore() throws Exception {
+    final File lazyFolder = new File(scriptFolder, "bash.d");
+    final File groupScript = new File(lazyFolder, "group-0.sh");
+    FileUtils.writeStringToFile(groupScript, "# group", "UTF-8");
+    final File outside = tmp.newFile("outside");
+    final Map<String, FileDigest> previousFiles =
+        new HashMap<String, FileDigest>();
+    previousFiles.put("bash", null);
+    previousFiles.put("bash.d/group-0.sh", null);
+    previousFiles.put("../outside", null);
+    setField("previousFiles", previousFiles);
+
+    uut.writeScripts(scriptFolder,
+        new ScriptBuilder[] {new FakeScriptBuilder("bash", null)});
+    uut.deleteStaleFiles(scriptFolder);
+
+    assertFalse(lazyFolder.exists());
+    assertTrue(new File(scriptFolder, "bash").isFile());
+    assertTrue(outside.isFile());
+  }
+
+  @Test
+  public void rejectsStreamingWithModelSnapshot() throws Exception {
+    setField("streaming", true);
+    setField("useModelSnapshot", true);
+    setField("scriptLocation", scriptFolder.getAbsolutePath());
+
+    try {
+      uut.execute();
+      fail("Expected streaming with model snapshot to be rejected.");
+    } catch (final MojoExecutionException e) {
+      assertTrue(e.getMessage(), e.getMessage().contains("useModelSnapshot"));
+    }
+    assertEquals(0, scriptFolder.list().length);
+  }
+}
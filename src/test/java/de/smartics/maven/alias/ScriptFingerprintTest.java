@@ -0,0 +1,187 @@
+/*
+ * Copyright 2012-2024 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.smartics.maven.alias;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests {@link ScriptFingerprint}.
+ */
+public class ScriptFingerprintTest {
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  private static final List<String> SCRIPT_IDS = Arrays.asList("bash");
+
+  // --- members --------------------------------------------------------------
+
+  /**
+   * The temporary folder to write scripts and state files to.
+   */
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  private File aliasFile;
+
+  private File scriptFolder;
+
+  // ****************************** Inner Classes *****************************
+
+  // ********************************* Methods ********************************
+
+  // --- prepare --------------------------------------------------------------
+
+  /**
+   * Test setup.
+   *
+   * @throws IOException on any problem creating the test files.
+   */
+  @Before
+  public void setUp() throws IOException {
+    aliasFile = tmp.newFile("alias.xml");
+    FileUtils.writeStringToFile(aliasFile, "<aliases/>", "UTF-8");
+    scriptFolder = tmp.newFolder("alias-scripts");
+    FileUtils.writeStringToFile(new File(scriptFolder, "bash"), "#!/bin/bash",
+        "UTF-8");
+  }
+
+  // --- helper ---------------------------------------------------------------
+
+  private ScriptFingerprint createUut(final String helpAlias)
+      throws IOException {
+    return new ScriptFingerprint.Builder().withFile(aliasFile)
+        .with("helpAlias", helpAlias).with("intro", (String) null).build();
+  }
+
+  // --- tests ----------------------------------------------------------------
+
+  @Test
+  public void isStableForSameInputs() throws IOException {
+    assertEquals(createUut("h").getValue(), createUut("h").getValue());
+  }
+
+  @Test
+  public void changesWithParameters() throws IOException {
+    assertFalse(createUut("h").getValue().equals(createUut("x").getValue()));
+  }
+
+  @Test
+  public void changesWithFileContent() throws IOException {
+    final String before = createUut("h").getValue();
+    FileUtils.writeStringToFile(aliasFile, "<aliases></aliases>", "UTF-8");
+    assertFalse(before.equals(createUut("h").getValue()));
+  }
+
+  @Test
+  public void separatesFileContentFromParameters() throws IOException {
+    FileUtils.writeStringToFile(aliasFile, "<aliases/>\nhelpAlias=h\n",
+        "UTF-8");
+    final String merged = new ScriptFingerprint.Builder().withFile(aliasFile)
+        .with("intro", (String) null).build().getValue();
+    FileUtils.writeStringToFile(aliasFile, "<aliases/>\n", "UTF-8");
+
+    assertFalse(merged.equals(new ScriptFingerprint.Builder()
+        .withFile(aliasFile).with("helpAlias", "h").with("intro", (String) null)
+        .build().getValue()));
+  }
+
+  @Test
+  public void isNotUpToDateWithoutStateFile() throws IOException {
+    assertFalse(createUut("h").isUpToDate(scriptFolder, SCRIPT_IDS));
+  }
+
+  @Test
+  public void isUpToDateAfterStore() throws IOException {
+    final ScriptFingerprint uut = createUut("h");
+    uut.store(scriptFolder);
+    assertTrue(uut.isUpToDate(scriptFolder, SCRIPT_IDS));
+    assertFalse(createUut("x").isUpToDate(scriptFolder, SCRIPT_IDS));
+  }
+
+  @Test
+  public void isNotUpToDateIfScriptIsMissing() throws IOException {
+    final ScriptFingerprint uut = createUut("h");
+    uut.store(scriptFolder);
+    assertFalse(uut.isUpToDate(scriptFolder, Arrays.asList("bash", "windows")));
+  }
+
+  @Test
+  public void isNotUpToDateIfGeneratedFileIsMissing() throws IOException {
+    final File helpFile = new File(scriptFolder, "bash.help");
+    FileUtils.writeStringToFile(helpFile, "help", "UTF-8");
+    final ScriptFingerprint uut = createUut("h");
+    final Map<String, FileDigest> files =
+        new LinkedHashMap<String, FileDigest>();
+    files.put("bash.d/group-1.sh", null);
+    files.put("bash.help", null);
+    uut.store(scriptFolder, files);
+    assertFalse(uut.isUpToDate(scriptFolder, SCRIPT_IDS));
+
+    FileUtils.writeStringToFile(new File(scriptFolder, "bash.d/group-1.sh"),
+        "function any() { command; }", "UTF-8");
+    assertTrue(uut.isUpToDate(scriptFolder, SCRIPT_IDS));
+
+    helpFile.delete();
+    assertFalse(uut.isUpToDate(scriptFolder, SCRIPT_IDS));
+  }
+
+  @Test
+  public void readsRecordedDigests() throws IOException {
+    final File helpFile = new File(scriptFolder, "bash.help");
+    FileUtils.writeStringToFile(helpFile, "help", "UTF-8");
+    final FileDigest digest =
+        FileDigest.create(helpFile, new byte[] {0x01, (byte) 0xab});
+    final Map<String, FileDigest> files =
+        new LinkedHashMap<String, FileDigest>();
+    files.put("bash", null);
+    files.put("bash.help", digest);
+    createUut("h").store(scriptFolder, files);
+
+    final Map<String, FileDigest> read =
+        ScriptFingerprint.readFiles(scriptFolder);
+    assertEquals(files.keySet(), read.keySet());
+    assertNull(read.get("bash"));
+    assertEquals(digest.toString(), read.get("bash.help").toString());
+    assertTrue(read.get("bash.help").isCurrent(helpFile));
+    assertTrue(read.get("bash.help").hasValue(new byte[] {0x01, (byte) 0xab}));
+  }
+
+  @Test
+  public void isNotUpToDateAfterDelete() throws IOException {
+    final ScriptFingerprint uut = createUut("h");
+    uut.store(scriptFolder);
+    ScriptFingerprint.delete(scriptFolder);
+    assertFalse(uut.isUpToDate(scriptFolder, SCRIPT_IDS));
+    ScriptFingerprint.delete(scriptFolder);
+  }
+}
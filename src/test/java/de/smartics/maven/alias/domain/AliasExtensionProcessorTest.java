@@ -16,6 +16,7 @@
 package de.smartics.maven.alias.domain;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import org.junit.Test;
 import org.xml.sax.InputSource;
@@ -53,6 +54,14 @@ public class AliasExtensionProcessorTest {
     private final List<ExtensionGroup> extensionGroups =
         new ArrayList<ExtensionGroup>();
 
+    /**
+     * The extended aliases handed over while streaming.
+     */
+    private final List<ExtensionGroup> streamedExtensionGroups =
+        new ArrayList<ExtensionGroup>();
+
+    private boolean streaming;
+
     // ***************************** Initializer ******************************
 
     // ***************************** Constructors *****************************
@@ -89,6 +98,27 @@ public class AliasExtensionProcessorTest {
       throw new UnsupportedOperationException();
     }
 
+    public void writeScript(final Appendable out) {
+      throw new UnsupportedOperationException();
+    }
+
+    public void startStream(final Appendable out,
+        final int maxAliasNameLength) {
+      throw new UnsupportedOperationException();
+    }
+
+    public void finishStream() {
+      throw new UnsupportedOperationException();
+    }
+
+    public boolean isStreaming() {
+      return streaming;
+    }
+
+    public void addExtendedAliases(final ExtensionGroup extensionGroup) {
+      streamedExtensionGroups.add(extensionGroup);
+    }
+
     public void setAddInstallationComment(
         final boolean addInstallationComment) {
       throw new UnsupportedOperationException();
@@ -160,4 +190,31 @@ public class AliasExtensionProcessorTest {
     final ExtensionGroup extensionGroup = extensionGroups.get(0);
     assertEquals(3, extensionGroup.getAliases().size());
   }
+
+  @Test
+  public void handsOverExtendedAliasesWhileStreaming() {
+    final AliasesProcessor uut = createUut("extension-example.xml");
+    final ScriptBuilder[] builders = createBuilders();
+    final FakeBuilder builder = (FakeBuilder) builders[0];
+    builder.streaming = true;
+    uut.stream(builders);
+
+    int extendedAliases = 0;
+    for (final ExtensionGroup group : builder.streamedExtensionGroups) {
+      assertTrue(group.isFrozen());
+      extendedAliases += group.getAliases().size();
+    }
+    assertEquals(3, extendedAliases);
+    final List<ExtensionGroup> extensionGroups = getExtensionGroups(builders);
+    assertEquals(1, extensionGroups.size());
+    assertTrue(extensionGroups.get(0).isEmpty());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsExtensionFollowingGroupWhileStreaming() {
+    final AliasesProcessor uut = createUut("extension-after-group.xml");
+    final ScriptBuilder[] builders = createBuilders();
+    ((FakeBuilder) builders[0]).streaming = true;
+    uut.stream(builders);
+  }
 }
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2012-2024 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.smartics.maven.alias.domain;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.xml.sax.InputSource;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Tests {@link AliasModelSnapshot}.
+ */
+public class AliasModelSnapshotTest {
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  private static final String HASH = "0123456789abcdef";
+
+  /**
+   * The offset of the number of strings: magic, version, hash length, hash
+   * and the comments flag precede it.
+   */
+  private static final int STRING_COUNT_OFFSET = 4 + 4 + 4 + 16 + 1;
+
+  // --- members --------------------------------------------------------------
+
+  /**
+   * The temporary folder to write snapshots to.
+   */
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  private File snapshot;
+
+  private AliasModel model;
+
+  // ****************************** Inner Classes *****************************
+
+  // ********************************* Methods ********************************
+
+  // --- prepare --------------------------------------------------------------
+
+  /**
+   * Test setup.
+   *
+   * @throws Exception on any problem reading the example model.
+   */
+  @Before
+  public void setUp() throws Exception {
+    snapshot = new File(tmp.getRoot(), "alias/model.bin");
+    final URL url =
+        AliasModelSnapshotTest.class.getResource("extension-example.xml");
+    final InputSource source = new InputSource(url.openStream());
+    model = new AliasesProcessor(source).readModel();
+  }
+
+  // --- helper ---------------------------------------------------------------
+
+  private void patchInt(final int offset, final int value) throws IOException {
+    final byte[] bytes = FileUtils.readFileToByteArray(snapshot);
+    ByteBuffer.wrap(bytes).putInt(offset, value);
+    FileUtils.writeByteArrayToFile(snapshot, bytes);
+  }
+
+  private static void assertSameAliases(final List<Alias> expected,
+      final List<Alias> actual) {
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      final Alias expectedAlias = expected.get(i);
+      final Alias actualAlias = actual.get(i);
+      assertEquals(expectedAlias.getName(), actualAlias.getName());
+      assertEquals(expectedAlias.getCommand(), actualAlias.getCommand());
+      assertEquals(expectedAlias.getComment(), actualAlias.getComment());
+      assertEquals(expectedAlias.getEnv(), actualAlias.getEnv());
+      assertEquals(expectedAlias.isPassArgs(), actualAlias.isPassArgs());
+    }
+  }
+
+  // --- tests ----------------------------------------------------------------
+
+  @Test
+  public void readsWrittenModel() throws IOException {
+    AliasModelSnapshot.write(snapshot, HASH, model);
+    final AliasModel actual = AliasModelSnapshot.read(snapshot, HASH);
+
+    assertEquals(model.getGroups().size(), actual.getGroups().size());
+    for (int i = 0; i < model.getGroups().size(); i++) {
+      final AliasGroup expectedGroup = model.getGroups().get(i);
+      final AliasGroup actualGroup = actual.getGroups().get(i);
+      assertEquals(expectedGroup.getName(), actualGroup.getName());
+      assertEquals(expectedGroup.getComment(), actualGroup.getComment());
+      assertSameAliases(expectedGroup.getAliases(), actualGroup.getAliases());
+    }
+
+    assertEquals(model.getExtensionGroups().size(),
+        actual.getExtensionGroups().size());
+    for (int i = 0; i < model.getExtensionGroups().size(); i++) {
+      final ExtensionGroup expectedGroup = model.getExtensionGroups().get(i);
+      final ExtensionGroup actualGroup = actual.getExtensionGroups().get(i);
+      final AliasExtension expectedExtension = expectedGroup.getExtension();
+      final AliasExtension actualExtension = actualGroup.getExtension();
+      assertEquals(expectedExtension.getName(), actualExtension.getName());
+      assertEquals(expectedExtension.getTemplate(),
+          actualExtension.getTemplate());
+      assertEquals(expectedExtension.getMnemonic(),
+          actualExtension.getMnemonic());
+      assertEquals(expectedExtension.getComment(),
+          actualExtension.getComment());
+      assertEquals(expectedExtension.getApplyToGroups(),
+          actualExtension.getApplyToGroups());
+      assertEquals(expectedExtension.getApplyToAliases(),
+          actualExtension.getApplyToAliases());
+      assertSameAliases(expectedGroup.getAliases(), actualGroup.getAliases());
+    }
+  }
+
+  @Test
+  public void ignoresSnapshotOfOtherDocument() throws IOException {
+    AliasModelSnapshot.write(snapshot, HASH, model);
+
+    assertNull(AliasModelSnapshot.read(snapshot, "fedcba9876543210"));
+  }
+
+  @Test
+  public void ignoresMissingSnapshot() throws IOException {
+    assertNull(AliasModelSnapshot.read(snapshot, HASH));
+  }
+
+  @Test(expected = IOException.class)
+  public void rejectsTruncatedSnapshot() throws IOException {
+    AliasModelSnapshot.write(snapshot, HASH, model);
+    final byte[] bytes = FileUtils.readFileToByteArray(snapshot);
+    final byte[] truncated = new byte[bytes.length - 6];
+    System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+    FileUtils.writeByteArrayToFile(snapshot, truncated);
+
+    AliasModelSnapshot.read(snapshot, HASH);
+  }
+
+  @Test(expected = IOException.class)
+  public void rejectsNegativeStringCount() throws IOException {
+    AliasModelSnapshot.write(snapshot, HASH, model);
+    patchInt(STRING_COUNT_OFFSET, -1);
+
+    AliasModelSnapshot.read(snapshot, HASH);
+  }
+
+  @Test(expected = IOException.class)
+  public void rejectsHugeStringCount() throws IOException {
+    AliasModelSnapshot.write(snapshot, HASH, model);
+    patchInt(STRING_COUNT_OFFSET, Integer.MAX_VALUE);
+
+    AliasModelSnapshot.read(snapshot, HASH);
+  }
+
+  @Test(expected = IOException.class)
+  public void rejectsNegativeStringLength() throws IOException {
+    AliasModelSnapshot.write(snapshot, HASH, model);
+    patchInt(STRING_COUNT_OFFSET + 4, -7);
+
+    AliasModelSnapshot.read(snapshot, HASH);
+  }
+
+  @Test
+  public void allowsReplacingSnapshotAfterRead() throws IOException {
+    AliasModelSnapshot.write(snapshot, HASH, model);
+    AliasModelSnapshot.read(snapshot, HASH);
+    AliasModelSnapshot.write(snapshot, HASH, model);
+
+    assertEquals(model.getGroups().size(),
+        AliasModelSnapshot.read(snapshot, HASH).getGroups().size());
+  }
+}
@@ -16,7 +16,9 @@
 package de.smartics.maven.alias.domain;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import org.junit.Test;
@@ -53,6 +55,8 @@ public class AliasProcessorTest {
 
     private final List<AliasGroup> aliasGroups = new ArrayList<AliasGroup>();
 
+    private List<ExtensionGroup> extensionGroups;
+
     // ***************************** Initializer ******************************
 
     // ***************************** Constructors *****************************
@@ -89,13 +93,34 @@ public class AliasProcessorTest {
       throw new UnsupportedOperationException();
     }
 
+    public void writeScript(final Appendable out) {
+      throw new UnsupportedOperationException();
+    }
+
+    public void startStream(final Appendable out,
+        final int maxAliasNameLength) {
+      throw new UnsupportedOperationException();
+    }
+
+    public void finishStream() {
+      throw new UnsupportedOperationException();
+    }
+
+    public boolean isStreaming() {
+      return false;
+    }
+
+    public void addExtendedAliases(final ExtensionGroup extensionGroup) {
+      throw new UnsupportedOperationException();
+    }
+
     public void setAddInstallationComment(
         final boolean addInstallationComment) {
       throw new UnsupportedOperationException();
     }
 
     public void setExtensionGroups(final List<ExtensionGroup> extensionGroups) {
-      // NOOP
+      this.extensionGroups = extensionGroups;
     }
 
     // --- business -----------------------------------------------------------
@@ -110,6 +135,11 @@ public class AliasProcessorTest {
   // --- helper ---------------------------------------------------------------
 
   private static AliasesProcessor createUut(final String resourceId) {
+    return createUut(resourceId, false);
+  }
+
+  private static AliasesProcessor createUut(final String resourceId,
+      final boolean useDomParser) {
     try {
       final URL url = AliasProcessorTest.class.getResource(resourceId);
       if (url == null) {
@@ -119,7 +149,7 @@ public class AliasProcessorTest {
       final InputStream in = new BufferedInputStream(url.openStream());
       final InputSource source = new InputSource(in);
       source.setSystemId(url.toExternalForm());
-      final AliasesProcessor uut = new AliasesProcessor(source);
+      final AliasesProcessor uut = new AliasesProcessor(source, useDomParser);
       return uut;
     } catch (final Exception e) {
       throw new IllegalArgumentException(
@@ -135,6 +165,14 @@ public class AliasProcessorTest {
     return ((FakeBuilder) builders[0]).aliasGroups.get(0).getAliases();
   }
 
+  private static List<Alias> readAliases(final String resourceId,
+      final boolean useDomParser) {
+    final AliasesProcessor uut = createUut(resourceId, useDomParser);
+    final ScriptBuilder[] builders = createBuilders();
+    uut.process(builders);
+    return getAliases(builders);
+  }
+
   // --- tests ----------------------------------------------------------------
 
   @Test
@@ -206,4 +244,155 @@ public class AliasProcessorTest {
     final Alias alias = aliases.get(0);
     assertEquals(false, alias.isPassArgs());
   }
+
+  @Test
+  public void readsSameAliasesWithDomParser() {
+    final String[] resourceIds = {"alias-without-comment.xml",
+        "alias-with-comment.xml", "alias-with-structured-comment.xml",
+        "alias-with-env.xml", "alias-with-pass.xml", "alias-example.xml",
+        "extension-example.xml"};
+    for (final String resourceId : resourceIds) {
+      final List<Alias> expected = readAliases(resourceId, true);
+      final List<Alias> actual = readAliases(resourceId, false);
+      assertEquals(resourceId, expected.size(), actual.size());
+      for (int i = 0; i < expected.size(); i++) {
+        final Alias expectedAlias = expected.get(i);
+        final Alias actualAlias = actual.get(i);
+        assertEquals(resourceId, expectedAlias.getName(),
+            actualAlias.getName());
+        assertEquals(resourceId, expectedAlias.getCommand(),
+            actualAlias.getCommand());
+        assertEquals(resourceId, expectedAlias.getComment(),
+            actualAlias.getComment());
+        assertEquals(resourceId, expectedAlias.getEnv(), actualAlias.getEnv());
+        assertEquals(resourceId, expectedAlias.isPassArgs(),
+            actualAlias.isPassArgs());
+      }
+    }
+  }
+
+  @Test
+  public void appliesExtensionsFollowingGroupsLikeDomParser() {
+    final String resourceId = "extension-after-group.xml";
+    final List<ExtensionGroup> expected =
+        createUut(resourceId, true).readModel().getExtensionGroups();
+    final ScriptBuilder[] builders = createBuilders();
+    createUut(resourceId, false).process(builders);
+    final List<ExtensionGroup> actual =
+        ((FakeBuilder) builders[0]).extensionGroups;
+
+    assertEquals(1, expected.size());
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      final List<Alias> expectedAliases = expected.get(i).getAliases();
+      final List<Alias> actualAliases = actual.get(i).getAliases();
+      assertEquals(3, expectedAliases.size());
+      assertEquals(expectedAliases.size(), actualAliases.size());
+      for (int j = 0; j < expectedAliases.size(); j++) {
+        assertEquals(expectedAliases.get(j).getName(),
+            actualAliases.get(j).getName());
+        assertEquals(expectedAliases.get(j).getCommand(),
+            actualAliases.get(j).getCommand());
+      }
+    }
+  }
+
+  @Test
+  public void skipsCommentsIfNotRequested() {
+    for (final boolean useDomParser : new boolean[] {false, true}) {
+      final AliasesProcessor uut =
+          createUut("alias-with-structured-comment.xml", useDomParser);
+      uut.setReadComments(false);
+      final AliasModel model = uut.readModel();
+
+      assertFalse(model.hasComments());
+      final Alias alias = model.getGroups().get(0).getAliases().get(0);
+      assertEquals(ALIAS_NAME, alias.getName());
+      assertEquals(ALIAS_COMMAND, alias.getCommand());
+      assertNull(alias.getComment());
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void rejectsStreamingTwice() {
+    final AliasesProcessor uut = createUut("alias-without-comment.xml");
+    uut.stream(createBuilders());
+    uut.stream(createBuilders());
+  }
+
+  @Test
+  public void processesDocumentRepeatedly() {
+    final AliasesProcessor uut = createUut("alias-without-comment.xml");
+    final ScriptBuilder[] first = createBuilders();
+    final ScriptBuilder[] second = createBuilders();
+    uut.process(first);
+    uut.process(second);
+
+    assertEquals(getAliases(first), getAliases(second));
+    assertEquals(ALIAS_NAME, getAliases(second).get(0).getName());
+  }
+
+  @Test
+  public void expandsExtensionsOnce() {
+    final AliasesProcessor uut = createUut("extension-example.xml", true);
+    uut.process(createBuilders());
+
+    assertSame(uut.readModel(), uut.readModel());
+  }
+
+  @Test
+  public void appliesModelToSeveralBuilders() {
+    final AliasModel model = createUut("alias-with-comment.xml").readModel();
+    final ScriptBuilder[] first = createBuilders();
+    final ScriptBuilder[] second = createBuilders();
+    model.apply(first);
+    model.apply(second);
+
+    assertEquals(1, getAliases(first).size());
+    assertEquals(getAliases(first), getAliases(second));
+    assertEquals(ALIAS_NAME, getAliases(second).get(0).getName());
+  }
+
+  @Test
+  public void handsFrozenGroupsToCollectors() {
+    final AliasModel model = createUut("extension-example.xml").readModel();
+
+    for (final AliasGroup group : model.getGroups()) {
+      assertTrue(group.isFrozen());
+    }
+    for (final ExtensionGroup group : model.getExtensionGroups()) {
+      assertTrue(group.isFrozen());
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void rejectsAddingAliasesToFrozenGroups() {
+    final AliasModel model = createUut("alias-with-comment.xml").readModel();
+    model.getGroups().get(0).addAlias(
+        new Alias.Builder().withName("x").withCommand("y").build());
+  }
+
+  @Test
+  public void sharesEnvironmentViewsOfFrozenGroups() {
+    final AliasModel model = createUut("alias-example.xml").readModel();
+    final AliasGroup group = model.getGroups().get(1);
+
+    assertEquals(1, group.getAliases("windows").size());
+    assertEquals("j6", group.getAliases("windows").get(0).getName());
+    assertTrue(group.getAliases("bash").isEmpty());
+    assertSame(group.getAliases("windows"), group.getAliases("windows"));
+    assertSame(group.getAliases("bash"), group.getAliases("unknown"));
+    assertEquals(1, model.getGroups().get(0).getAliases("bash").size());
+  }
+
+  @Test
+  public void scansAliasNameLengthsPerEnvironment() throws Exception {
+    final URL url = AliasProcessorTest.class.getResource("alias-example.xml");
+    final InputSource source =
+        new InputSource(new BufferedInputStream(url.openStream()));
+    final AliasNameLengths lengths =
+        AliasesProcessor.scanAliasNameLengths(source);
+    assertEquals(1, lengths.getMaxLength("bash"));
+    assertEquals(2, lengths.getMaxLength("windows"));
+  }
 }
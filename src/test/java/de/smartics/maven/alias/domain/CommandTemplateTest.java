@@ -0,0 +1,76 @@
+/*
+ * Copyright 2012-2024 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.smartics.maven.alias.domain;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import org.junit.Test;
+
+/**
+ * Tests {@link CommandTemplate}.
+ */
+public class CommandTemplateTest {
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  // --- members --------------------------------------------------------------
+
+  // ****************************** Inner Classes *****************************
+
+  // ********************************* Methods ********************************
+
+  // --- prepare --------------------------------------------------------------
+
+  // --- helper ---------------------------------------------------------------
+
+  private static String render(final String text,
+      final CharSequence... values) {
+    final StringBuilder out = new StringBuilder();
+    CommandTemplate.compile(text, Alias.ARGS_PLACEHOLDER,
+        Alias.BELL_PLACEHOLDER).render(out, values);
+    return out.toString();
+  }
+
+  // --- tests ----------------------------------------------------------------
+
+  @Test
+  public void rendersLiteralTemplateUnchanged() {
+    final CommandTemplate uut = CommandTemplate.compile("mvn clean install",
+        Alias.ARGS_PLACEHOLDER);
+
+    assertFalse(uut.hasPlaceholders());
+    assertEquals("mvn clean install", render("mvn clean install", "$@", "!"));
+  }
+
+  @Test
+  public void replacesEveryOccurrenceOfEachPlaceholder() {
+    assertEquals("cd $@ && ls $@!",
+        render("cd {@args} && ls {@args}{@bell}", "$@", "!"));
+  }
+
+  @Test
+  public void keepsUnknownPlaceholdersAsLiterals() {
+    assertEquals("echo {@cmd} x {@",
+        render("echo {@cmd} {@args} {@", "x", "!"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsPlaceholdersWithoutPrefix() {
+    CommandTemplate.compile("echo", "args");
+  }
+}
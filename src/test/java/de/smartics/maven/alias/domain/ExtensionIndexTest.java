@@ -0,0 +1,98 @@
+/*
+ * Copyright 2012-2024 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.smartics.maven.alias.domain;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests {@link ExtensionIndex}.
+ */
+public class ExtensionIndexTest {
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  private static final String GROUP_NAME = "mvn";
+
+  // --- members --------------------------------------------------------------
+
+  private ExtensionIndex uut;
+
+  private ExtensionGroup groupExtension;
+
+  private ExtensionGroup aliasExtension;
+
+  // ****************************** Inner Classes *****************************
+
+  // ********************************* Methods ********************************
+
+  // --- prepare --------------------------------------------------------------
+
+  /**
+   * Test setup.
+   */
+  @Before
+  public void setUp() {
+    groupExtension = new ExtensionGroup(new AliasExtension.Builder()
+        .withName("g").withTemplate("g {@cmd}").addGroup(GROUP_NAME)
+        .addAlias("i").build());
+    aliasExtension = new ExtensionGroup(new AliasExtension.Builder()
+        .withName("a").withTemplate("a {@cmd}").addAlias("i").addAlias("i")
+        .build());
+
+    uut = new ExtensionIndex();
+    uut.add(groupExtension);
+    uut.add(aliasExtension);
+  }
+
+  // --- helper ---------------------------------------------------------------
+
+  private static Alias createAlias(final String name) {
+    return new Alias.Builder().withName(name).withCommand("cmd").build();
+  }
+
+  // --- tests ----------------------------------------------------------------
+
+  @Test
+  public void appliesExtensionsByGroupAndAliasOnce() {
+    uut.extend(GROUP_NAME, createAlias("i"));
+
+    assertEquals(1, groupExtension.getAliases().size());
+    assertEquals("ig", groupExtension.getAliases().get(0).getName());
+    assertEquals(1, aliasExtension.getAliases().size());
+    assertEquals("ia", aliasExtension.getAliases().get(0).getName());
+  }
+
+  @Test
+  public void appliesExtensionsByAliasInOtherGroups() {
+    uut.extend("other", createAlias("i"));
+
+    assertEquals(1, groupExtension.getAliases().size());
+    assertEquals(1, aliasExtension.getAliases().size());
+  }
+
+  @Test
+  public void skipsAliasesWithoutMatchingExtensions() {
+    uut.extend("other", createAlias("s"));
+
+    assertTrue(groupExtension.isEmpty());
+    assertTrue(aliasExtension.isEmpty());
+  }
+}
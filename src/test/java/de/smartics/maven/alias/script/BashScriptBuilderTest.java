@@ -0,0 +1,467 @@
+/*
+ * Copyright 2012-2024 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.smartics.maven.alias.script;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import de.smartics.maven.alias.domain.Alias;
+import de.smartics.maven.alias.domain.AliasExtension;
+import de.smartics.maven.alias.domain.AliasGroup;
+import de.smartics.maven.alias.domain.ExtensionGroup;
+import de.smartics.maven.alias.domain.ScriptFileWriter;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Tests {@link BashScriptBuilder}.
+ */
+public class BashScriptBuilderTest {
+
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  private static final String ALIAS_GROUP_NAME = "test";
+
+  private static final String ALIAS_COMMAND = "command";
+
+  private static final String ALIAS_NAME = "any";
+
+  // --- members --------------------------------------------------------------
+
+  private BashScriptBuilder uut;
+
+  private final Map<String, String> files = new LinkedHashMap<String, String>();
+
+  /**
+   * The temporary folder to write scripts to that are run by Bash.
+   */
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  // ****************************** Inner Classes *****************************
+
+  /**
+   * Collects the files written by the script builder in {@link #files}.
+   */
+  private final class FileCollector implements ScriptFileWriter {
+    public void write(final String path, final CharSequence content) {
+      files.put(path, content.toString());
+    }
+
+    public void write(final String path, final Content content)
+        throws IOException {
+      final StringBuilder text = new StringBuilder();
+      content.writeTo(text);
+      write(path, text);
+    }
+  }
+
+  // ********************************* Methods ********************************
+
+  // --- prepare --------------------------------------------------------------
+
+  /**
+   * Test setup.
+   */
+  @Before
+  public void setUp() {
+    this.uut = new BashScriptBuilder("h");
+  }
+
+  // --- helper ---------------------------------------------------------------
+
+  private static AliasGroup createAliasGroup(final String name,
+      final Alias... aliases) {
+    final AliasGroup group = new AliasGroup(name, null);
+    for (final Alias alias : aliases) {
+      group.addAlias(alias);
+    }
+    return group;
+  }
+
+  private static Alias createAlias(final String name) {
+    return new Alias.Builder().withName(name).withCommand(ALIAS_COMMAND)
+        .build();
+  }
+
+  private void setLazy() {
+    uut.setLazy(new FileCollector());
+  }
+
+  private static void writeLazyScript(final File folder,
+      final String helpAlias, final String catalogHash, final Alias... aliases)
+      throws IOException {
+    final ScriptFileWriter writer = new ScriptFileWriter() {
+      public void write(final String path, final CharSequence content)
+          throws IOException {
+        FileUtils.writeStringToFile(new File(folder, path), content.toString(),
+            "UTF-8");
+      }
+
+      public void write(final String path, final Content content)
+          throws IOException {
+        final StringBuilder text = new StringBuilder();
+        content.writeTo(text);
+        write(path, text);
+      }
+    };
+    final BashScriptBuilder builder = new BashScriptBuilder(helpAlias);
+    builder.setCatalogHash(catalogHash);
+    builder.setLazy(writer);
+    builder.setMinify(writer);
+    builder.addAliases(createAliasGroup(ALIAS_GROUP_NAME, aliases));
+    writer.write(BashScriptBuilder.ID, builder.createScript());
+  }
+
+  private void writeHelpScript(final String folder, final String helpAlias,
+      final Alias... aliases) throws IOException {
+    final BashScriptBuilder builder = new BashScriptBuilder(helpAlias);
+    builder.setHelpLookup(true);
+    builder.addAliases(createAliasGroup(ALIAS_GROUP_NAME, aliases));
+    FileUtils.writeStringToFile(
+        new File(tmp.newFolder(folder), BashScriptBuilder.ID),
+        builder.createScript(), "UTF-8");
+  }
+
+  private static Alias createAlias(final String name, final String command) {
+    return new Alias.Builder().withName(name).withCommand(command).build();
+  }
+
+  private String runBash(final String command) throws Exception {
+    assumeTrue(new File("/bin/bash").canExecute());
+    final Process process = new ProcessBuilder("/bin/bash", "-c", command)
+        .directory(tmp.getRoot()).redirectErrorStream(true).start();
+    try {
+      final String output = IOUtils.toString(process.getInputStream(), "UTF-8");
+      process.waitFor();
+      return output;
+    } finally {
+      process.destroy();
+    }
+  }
+
+  private String createExtendedScript(final String template) {
+    return createExtendedScript(template, createAlias(ALIAS_NAME));
+  }
+
+  private String createExtendedScript(final String template,
+      final Alias alias) {
+    setUp();
+    uut.setExtensionDispatcher(true);
+    final ExtensionGroup extension = new ExtensionGroup(
+        new AliasExtension.Builder().withName("t").withTemplate(template)
+            .addGroup(ALIAS_GROUP_NAME).build());
+    extension.addAlias(ALIAS_GROUP_NAME, alias);
+    uut.addAliases(createAliasGroup(ALIAS_GROUP_NAME, alias));
+    uut.setExtensionGroups(Collections.singletonList(extension));
+    return uut.createScript();
+  }
+
+  private void setMinify() {
+    uut.setMinify(new FileCollector());
+  }
+
+  // --- tests ----------------------------------------------------------------
+
+  @Test
+  public void definesFunctionsInScript() {
+    uut.addAliases(createAliasGroup(ALIAS_GROUP_NAME, createAlias(ALIAS_NAME)));
+    final String script = uut.createScript();
+
+    assertTrue(script.contains("function any() { command $@; }\n"));
+  }
+
+  @Test
+  public void writesGroupFilesAndStubsInLazyMode() {
+    setLazy();
+    uut.addAliases(createAliasGroup(ALIAS_GROUP_NAME, createAlias(ALIAS_NAME)));
+    uut.addAliases(createAliasGroup("other", createAlias("o")));
+    final String script = uut.createScript();
+
+    assertEquals(2, files.size());
+    assertEquals("function any() { command $@; }\n",
+        files.get(BashScriptBuilder.GROUP_FOLDER + "/group-1.sh"));
+    assertEquals("function o() { command $@; }\n",
+        files.get(BashScriptBuilder.GROUP_FOLDER + "/group-2.sh"));
+    assertTrue(script.contains(
+        "function any() { __alias_load_h group-1.sh any \"$@\"; }\n"));
+    assertTrue(script.contains(
+        "function o() { __alias_load_h group-2.sh o \"$@\"; }\n"));
+    assertFalse(script.contains("command $@"));
+  }
+
+  @Test
+  public void loadsGroupFilesOfEachLazyScriptSourced() throws Exception {
+    writeLazyScript(tmp.newFolder("a"), "h", "aaa",
+        createAlias("fa", "echo A"));
+    writeLazyScript(tmp.newFolder("b"), "h2", "bbb",
+        createAlias("fb", "echo B"));
+
+    assertEquals("A\nB\nA\n", runBash("source a/bash; cd /; source "
+        + tmp.getRoot() + "/b/bash; fa; fb; fa"));
+    assertEquals(" --- test\n fa = echo A [args]\n", runBash(
+        "source a/bash; source b/bash; h | head -2"));
+  }
+
+  @Test
+  public void failsIfGroupFileDoesNotDefineFunction() throws Exception {
+    final File folder = tmp.newFolder("a");
+    writeLazyScript(folder, "h", "aaa", createAlias("fa", "echo A"));
+    FileUtils.writeStringToFile(
+        new File(folder, BashScriptBuilder.GROUP_FOLDER + "/group-1.sh"),
+        "function other() { echo other; }\n", "UTF-8");
+
+    assertEquals("fa: not defined by group-1.sh\n127\n",
+        runBash("source a/bash; fa; echo $?"));
+  }
+
+  @Test
+  public void keepsHelpInScriptInLazyMode() {
+    uut.addAliases(createAliasGroup(ALIAS_GROUP_NAME, createAlias(ALIAS_NAME)));
+    final String eager = uut.createScript();
+
+    setUp();
+    setLazy();
+    uut.addAliases(createAliasGroup(ALIAS_GROUP_NAME, createAlias(ALIAS_NAME)));
+    final String lazy = uut.createScript();
+
+    final String help = eager.substring(eager.indexOf("alias h="));
+    assertTrue(lazy.endsWith(help));
+  }
+
+  @Test
+  public void printsPrecomputedHelpByFunction() {
+    uut.setHelpFunction(true);
+    uut.setDocUrl("http://www.example.com");
+    uut.addAliases(createAliasGroup(ALIAS_GROUP_NAME, new Alias.Builder()
+        .withName(ALIAS_NAME).withCommand("echo 'it'").build()));
+    final String script = uut.createScript();
+
+    assertTrue(script.endsWith("__alias_help_h=' --- test\n"
+        + " any = echo '\\''it'\\'' [args]\n" + " --- help\n"
+        + " h   = This help.\n"
+        + "For additional information please refer to: \n"
+        + "  http://www.example.com\n'\n" + "unalias h 2> /dev/null\n"
+        + "function h() { printf '%s' \"$__alias_help_h\"; }\n"));
+    assertFalse(script.contains("alias h="));
+  }
+
+  @Test
+  public void storesAliasesForLookupSortedByName() {
+    uut.setHelpLookup(true);
+    uut.addAliases(createAliasGroup(ALIAS_GROUP_NAME, createAlias("z"),
+        new Alias.Builder().withName("a").withCommand("echo 'a'")
+            .withComment(" Prints\n  a. ").build()));
+    final String script = uut.createScript();
+
+    assertTrue(script.contains("declare -gA __alias_commands_h=(\n"
+        + "  ['a']='echo '\\''a'\\'''\n" + "  ['z']='command'\n" + ")\n"
+        + "declare -gA __alias_comments_h=(\n" + "  ['a']='Prints a.'\n"
+        + ")\n" + "__alias_names_h=( 'a' 'z' )\n"));
+    assertTrue(script.contains("function h() {\n"));
+    assertFalse(script.contains("alias h="));
+  }
+
+  @Test
+  public void storesCommentsForLookupAsPlainText() {
+    uut.setHelpLookup(true);
+    uut.addAliases(createAliasGroup(ALIAS_GROUP_NAME, new Alias.Builder()
+        .withName("mci").withCommand("mvn clean install")
+        .withComment("Install <b xmlns=\"http://smartics.de/alias/1.1.0\">it"
+            + "</b>\n  &amp; check &lt;a&gt;.").build()));
+    final String script = uut.createScript();
+
+    assertTrue(script.contains("declare -gA __alias_comments_h=(\n"
+        + "  ['mci']='Install it & check <a>.'\n)\n"));
+  }
+
+  @Test
+  public void keepsHelpOfEachScriptSourced() throws Exception {
+    writeHelpScript("a", "h", createAlias("fa", "echo A"));
+    writeHelpScript("b", "h2", createAlias("fb", "echo B"));
+
+    assertEquals(" --- test\n fa = echo A [args]\n"
+        + " fa = echo A\n" + " fb = echo B\n",
+        runBash("source a/bash; source b/bash; h | head -2; h fa; h2 fb"));
+  }
+
+  @Test
+  public void dispatchesExtendedAliasesToTemplateFunction() {
+    uut.setExtensionDispatcher(true);
+    final Alias alias = createAlias(ALIAS_NAME);
+    final ExtensionGroup extension = new ExtensionGroup(
+        new AliasExtension.Builder().withName("t").withTemplate("time {@cmd}")
+            .addGroup(ALIAS_GROUP_NAME).build());
+    extension.addAlias(ALIAS_GROUP_NAME, alias);
+    extension.addAlias(ALIAS_GROUP_NAME, createAlias("undefined"));
+    uut.addAliases(createAliasGroup(ALIAS_GROUP_NAME, alias));
+    uut.setExtensionGroups(Collections.singletonList(extension));
+    final String script = uut.createScript();
+
+    assertTrue(script.contains("function __alias_ext_t_h() { time \"$@\"; }\n"
+        + "function anyt() { __alias_ext_t_h any \"$@\"; }\n"));
+    assertTrue(script.contains("function undefinedt() { time command $@; }\n"));
+    assertFalse(script.contains("time command $@; }\nfunction anyt"));
+  }
+
+  @Test
+  public void dispatchesOnlyTemplatesRunningCommandAsSimpleCommand() {
+    uut.setExtensionDispatcher(true);
+    final String[] dispatchable = {"{@cmd}", "time {@cmd}",
+        "cd x && {@cmd}", "FOO=1 {@cmd}", "echo \"a;b\"; {@cmd} | less",
+        "(cd x; {@cmd})"};
+    final String[] complete = {"env FOO=1 {@cmd}", "sudo {@cmd}",
+        "watch {@cmd}", "nohup {@cmd}", "xargs {@cmd}", "ssh host {@cmd}",
+        "sh -c '{@cmd}'", "\"{@cmd}\"", "echo \"; {@cmd}\"", "x{@cmd}",
+        "{@cmd}x", "{@cmd} && sudo {@cmd}"};
+
+    for (final String template : dispatchable) {
+      assertTrue(template, createExtendedScript(template)
+          .contains("function anyt() { __alias_ext_t_h any \"$@\"; }\n"));
+    }
+    for (final String template : complete) {
+      final String script = createExtendedScript(template);
+      assertFalse(template, script.contains("__alias_ext_"));
+      assertTrue(template, script.contains("function anyt() { "
+          + template.replace("{@cmd}", ALIAS_COMMAND + " $@") + "; }\n"));
+    }
+  }
+
+  @Test
+  public void runsCompleteDefinitionOfExtensionNotDispatched()
+      throws Exception {
+    uut.setExtensionDispatcher(true);
+    FileUtils.writeStringToFile(new File(tmp.getRoot(), BashScriptBuilder.ID),
+        createExtendedScript("env FOO=1 {@cmd}").replace(ALIAS_COMMAND,
+            "printenv FOO"), "UTF-8");
+
+    assertEquals("1\n", runBash("source ./bash; anyt"));
+  }
+
+  @Test
+  public void definesExtensionCompletelyIfOriginalDoesNotAppendArgs()
+      throws Exception {
+    final Alias noArgs = new Alias.Builder().withName(ALIAS_NAME)
+        .withCommand("echo mvn clean install").withPassArgs(false).build();
+    FileUtils.writeStringToFile(new File(tmp.getRoot(), BashScriptBuilder.ID),
+        createExtendedScript("{@cmd} -o", noArgs), "UTF-8");
+
+    assertEquals("mvn clean install -o\n", runBash("source ./bash; anyt"));
+
+    final Alias argsInside = new Alias.Builder().withName(ALIAS_NAME)
+        .withCommand("echo {@args} done").build();
+    final String script = createExtendedScript("{@cmd} -o", argsInside);
+    assertFalse(script, script.contains("__alias_ext_"));
+  }
+
+  @Test
+  public void streamsExtendedAliasesAndSplicesSpilledHelp()
+      throws IOException {
+    final Alias alias = createAlias(ALIAS_NAME);
+    final Alias quoted = createAlias("it's");
+    final AliasExtension aliasExtension = new AliasExtension.Builder()
+        .withName("t").withTemplate("time {@cmd}").addGroup(ALIAS_GROUP_NAME)
+        .build();
+    final ExtensionGroup extension = new ExtensionGroup(aliasExtension);
+    extension.addAlias(ALIAS_GROUP_NAME, alias);
+    extension.addAlias(ALIAS_GROUP_NAME, quoted);
+    uut.addAliases(createAliasGroup(ALIAS_GROUP_NAME, alias, quoted));
+    uut.setExtensionGroups(Collections.singletonList(extension));
+    final String expected = uut.createScript();
+
+    setUp();
+    final StringBuilder script = new StringBuilder();
+    uut.startStream(script, 4);
+    uut.addAliases(createAliasGroup(ALIAS_GROUP_NAME, alias, quoted));
+    uut.addExtendedAliases(extension.freeze());
+    assertTrue(script.toString().endsWith(
+        "function anyt() { time command $@; }\n"
+            + "function it'st() { time command $@; }\n"));
+    uut.setExtensionGroups(Collections.singletonList(
+        new ExtensionGroup(aliasExtension)));
+    uut.finishStream();
+
+    assertEquals(getHelpAlias(expected), getHelpAlias(script.toString()));
+    assertFalse(script.toString().contains("\0"));
+  }
+
+  private static String getHelpAlias(final String script) {
+    final int start = script.indexOf("alias h='");
+    return script.substring(start, script.indexOf('\n', start));
+  }
+
+  @Test
+  public void forwardsIdenticalCommandsToFirstFunction() {
+    uut.setDedupeCommands(true);
+    uut.addAliases(createAliasGroup(ALIAS_GROUP_NAME, new Alias.Builder()
+        .withName("first").withCommand("mvn clean install").build()));
+    uut.addAliases(createAliasGroup("other", new Alias.Builder()
+        .withName("second").withCommand("mvn clean install").build(),
+        createAlias(ALIAS_NAME)));
+    final String script = uut.createScript();
+
+    assertTrue(script.contains("function first() { mvn clean install $@; }\n"
+        + "function second() { first \"$@\"; }\n"
+        + "function any() { command $@; }\n"));
+    assertEquals(3, uut.getFunctionCount());
+    assertEquals(1, uut.getForwardedFunctionCount());
+  }
+
+  @Test
+  public void movesHelpToHelpFileIfMinified() {
+    setMinify();
+    uut.setCommentIntro("intro");
+    uut.setCommentExtro("extro");
+    uut.setAddInstallationComment(true);
+    uut.addAliases(createAliasGroup(ALIAS_GROUP_NAME, new Alias.Builder()
+        .withName(ALIAS_NAME).withCommand("echo 'it'").build()));
+    final String script = uut.createScript();
+
+    assertTrue(script.contains("function any { echo 'it' $@;}\n"));
+    assertTrue(script.endsWith(
+        "function h { cat \"$__alias_dir_h/bash.help\";}\n"));
+    assertFalse(script.contains("# "));
+    assertEquals(" --- test\n" + " any = echo 'it' [args]\n" + " --- help\n"
+        + " h   = This help.\n", files.get(BashScriptBuilder.HELP_FILE));
+  }
+
+  @Test
+  public void returnsEarlyIfCatalogHasBeenSourced() {
+    uut.setCatalogHash("abc");
+    uut.setCatalogGuard(true);
+    uut.addAliases(createAliasGroup(ALIAS_GROUP_NAME, createAlias(ALIAS_NAME)));
+    final String script = uut.createScript();
+
+    assertTrue(script.startsWith("#!/bin/bash\n"
+        + "[ \"${__alias_catalog-}\" = 'abc' ] && return 0\n"));
+    assertTrue(script.endsWith("__alias_catalog='abc'\n"));
+  }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2012-2024 smartics, Kronseder & Reiner GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package de.smartics.maven.alias.script;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Tests {@link HelpEscaper}.
+ */
+public class HelpEscaperTest {
+  // ********************************* Fields *********************************
+
+  // --- constants ------------------------------------------------------------
+
+  // --- members --------------------------------------------------------------
+
+  // ****************************** Inner Classes *****************************
+
+  // ********************************* Methods ********************************
+
+  // --- prepare --------------------------------------------------------------
+
+  // --- helper ---------------------------------------------------------------
+
+  // --- tests ----------------------------------------------------------------
+
+  @Test
+  public void keepsTextWithoutReplacements() {
+    final HelpEscaper uut =
+        new HelpEscaper.Builder().replace("&", ";").build();
+
+    assertEquals("mvn clean install", uut.escape("mvn clean install"));
+  }
+
+  @Test
+  public void doesNotRescanReplacedText() {
+    final HelpEscaper uut = new HelpEscaper.Builder().replace("$T", ":")
+        .replace("%", "").replace("&", "%").build();
+
+    assertEquals("a $T b %", uut.escape("a $%T b &"));
+  }
+
+  @Test
+  public void prefersLongestSequence() {
+    final HelpEscaper uut = new HelpEscaper.Builder().replace("$", "S")
+        .replace("$T", ":").build();
+
+    assertEquals("S : S", uut.escape("$ $T $"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsDuplicateSequences() {
+    new HelpEscaper.Builder().replace("&", ";").replace("&", "and");
+  }
+}
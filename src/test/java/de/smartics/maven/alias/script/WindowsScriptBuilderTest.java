@@ -22,12 +22,17 @@ import de.smartics.maven.alias.domain.Alias;
 import de.smartics.maven.alias.domain.AliasExtension;
 import de.smartics.maven.alias.domain.AliasGroup;
 import de.smartics.maven.alias.domain.ExtensionGroup;
+import de.smartics.maven.alias.domain.ScriptFileWriter;
 
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.io.StringWriter;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Tests {@link WindowsScriptBuilder}.
@@ -57,8 +62,27 @@ public class WindowsScriptBuilderTest {
 
   private WindowsScriptBuilder uut;
 
+  private final Map<String, String> files =
+      new LinkedHashMap<String, String>();
+
   // ****************************** Inner Classes *****************************
 
+  /**
+   * Collects the files written by the script builder in {@link #files}.
+   */
+  private final class FileCollector implements ScriptFileWriter {
+    public void write(final String path, final CharSequence content) {
+      files.put(path, content.toString());
+    }
+
+    public void write(final String path, final Content content)
+        throws IOException {
+      final StringBuilder text = new StringBuilder();
+      content.writeTo(text);
+      write(path, text);
+    }
+  }
+
   // ********************************* Methods ********************************
 
   // --- prepare --------------------------------------------------------------
@@ -81,6 +105,14 @@ public class WindowsScriptBuilderTest {
     return group;
   }
 
+  private void setMacroFile() {
+    uut.setMacroFile(new FileCollector());
+  }
+
+  private void setMinify() {
+    uut.setMinify(new FileCollector());
+  }
+
   // --- tests ----------------------------------------------------------------
 
   @Test
@@ -171,4 +203,130 @@ public class WindowsScriptBuilderTest {
     final String script = uut.createScript();
     assertTrue(script.contains(expectedCommand));
   }
+
+  @Test
+  public void streamsSameScriptAsCreateScript() throws IOException {
+    final Alias alias = new Alias.Builder().withName(ALIAS_NAME)
+        .withCommand(ALIAS_COMMAND).build();
+    final Alias windowsAlias = new Alias.Builder().withName("windows")
+        .withCommand(ALIAS_COMMAND).withEnv("windows").build();
+    final AliasGroup group = createAliasGroup(alias);
+    group.addAlias(windowsAlias);
+    uut.addAliases(group);
+    final String expected = uut.createScript();
+
+    final WindowsScriptBuilder streamingUut = new WindowsScriptBuilder("h");
+    streamingUut.setCommentIntro("Some intro\nSecond intro Line");
+    streamingUut.setCommentExtro("Some extro\nSecond extro Line");
+    final StringBuilder script = new StringBuilder();
+    streamingUut.startStream(script, windowsAlias.getName().length());
+    streamingUut.addAliases(group);
+    streamingUut.finishStream();
+
+    assertEquals(expected, script.toString());
+  }
+
+  @Test
+  public void writesSameScriptAsCreateScript() throws IOException {
+    final Alias alias = new Alias.Builder().withName(ALIAS_NAME)
+        .withCommand(ALIAS_COMMAND).build();
+    uut.addAliases(createAliasGroup(alias));
+    final String expected = uut.createScript();
+
+    final StringWriter script = new StringWriter();
+    uut.writeScript(script);
+
+    assertEquals(expected, script.toString());
+  }
+
+  @Test
+  public void writesMacrosToMacroFile() {
+    setMacroFile();
+    final Alias alias = new Alias.Builder().withName(ALIAS_NAME)
+        .withCommand(ALIAS_COMMAND).build();
+    uut.addAliases(createAliasGroup(alias));
+
+    final String script = uut.createScript();
+
+    assertEquals(ECHO_OFF + "REM Some intro\r\n" + "REM Second intro Line\r\n"
+        + "doskey /macrofile=\"%~dp0windows.macros\"\r\n"
+        + "REM Some extro\r\n" + "REM Second extro Line\r\n" + ECHO_ON,
+        script);
+    assertEquals("any=command $*\r\n"
+        + "h=echo  --- test $T echo  any = command [args] $T echo  --- help"
+        + " $T echo  h   = This help.\r\n",
+        files.get(WindowsScriptBuilder.MACRO_FILE));
+  }
+
+  @Test
+  public void streamsSameMacroFileAsCreateScript() throws IOException {
+    setMacroFile();
+    final AliasGroup first = createAliasGroup(new Alias.Builder()
+        .withName("mx").withCommand("mvn install ^&^& exit").build());
+    final AliasGroup second = createAliasGroup(new Alias.Builder()
+        .withName("pct").withCommand("echo 100%% ^> x.txt").build());
+    uut.addAliases(first);
+    uut.addAliases(second);
+    final String expectedScript = uut.createScript();
+    final String expectedMacros = files.remove(WindowsScriptBuilder.MACRO_FILE);
+
+    setUp();
+    setMacroFile();
+    final StringBuilder script = new StringBuilder();
+    uut.startStream(script, 3);
+    uut.addAliases(first);
+    uut.addAliases(second);
+    uut.finishStream();
+
+    assertEquals(expectedScript, script.toString());
+    assertEquals(expectedMacros, files.get(WindowsScriptBuilder.MACRO_FILE));
+  }
+
+  @Test
+  public void resolvesBatchEscapesInMacroFile() {
+    setMacroFile();
+    uut.addAliases(createAliasGroup(new Alias.Builder().withName("mx")
+        .withCommand("mvn install ^&^& exit").withPassArgs(false).build()));
+    uut.addAliases(createAliasGroup(new Alias.Builder().withName("pct")
+        .withCommand("echo 100%% \"a^&b\" ^> %TEMP%\\x.txt")
+        .withPassArgs(false).build()));
+
+    uut.createScript();
+
+    final String macros = files.get(WindowsScriptBuilder.MACRO_FILE);
+    assertTrue(macros, macros.startsWith("mx=mvn install && exit\r\n"
+        + "pct=echo 100% \"a^&b\" > %TEMP%\\x.txt\r\n"));
+  }
+
+  @Test
+  public void movesHelpToHelpFileIfMinified() {
+    setMinify();
+    uut.setAddInstallationComment(true);
+    final Alias alias = new Alias.Builder().withName(ALIAS_NAME)
+        .withCommand(ALIAS_COMMAND).build();
+    uut.addAliases(createAliasGroup(alias));
+    final String script = uut.createScript();
+
+    assertEquals(ECHO_OFF + "doskey any=command $*\r\n"
+        + "doskey h=type \"%~dp0windows.help\"\r\n" + ECHO_ON, script);
+    assertEquals("--- test\r\n" + "any = command [args]\r\n"
+        + "--- help\r\n" + "h   = This help.\r\n",
+        files.get(WindowsScriptBuilder.HELP_FILE));
+  }
+
+  @Test
+  public void skipsMacrosIfCatalogHasBeenDefined() {
+    uut.setCatalogHash("abc");
+    uut.setCatalogGuard(true);
+    uut.setCommentIntro(null);
+    uut.setCommentExtro(null);
+    final String script = uut.createScript();
+
+    assertEquals(ECHO_OFF + "if \"%__alias_catalog%\"==\"abc\" (\r\n"
+        + "  doskey /macros | findstr /r /b /c:\"h *=\" >nul"
+        + " && goto __alias_end\r\n" + ")\r\n"
+        + "doskey h = echo  h = This help.\r\n"
+        + "set __alias_catalog=abc\r\n" + ":__alias_end\r\n" + ECHO_ON,
+        script);
+  }
 }